@@ -0,0 +1,69 @@
+/*
+  File: CableCarBenchmark.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation.bench;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+import javaSimulation.*;
+import javaSimulation.Process;
+import org.openjdk.jmh.annotations.*;
+
+/**
+* End-to-end runs of <tt>CableCarSimulation</tt> with 30 cars over 
+* 20000 seconds, in runs and in skiers per second.
+* <p>
+* Since the model is in the unnamed package, which cannot be imported,
+* it is created and read by reflection (outside the measured code).
+*/
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class CableCarBenchmark {
+    Constructor<?> constructor;
+    Field printReport, simPeriod, numberOfSkiers;
+
+    /**
+    * The number of skiers, reported per second.
+    */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Skiers {
+        public long skiers;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            skiers = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        Class<?> c = Class.forName("CableCarSimulation");
+        constructor = c.getDeclaredConstructor(int.class);
+        printReport = c.getDeclaredField("printReport");
+        simPeriod = c.getDeclaredField("simPeriod");
+        numberOfSkiers = c.getDeclaredField("numberOfSkiers");
+        constructor.setAccessible(true);
+        printReport.setAccessible(true);
+        simPeriod.setAccessible(true);
+        numberOfSkiers.setAccessible(true);
+    }
+
+    @Benchmark
+    public void skiers(Skiers s) throws ReflectiveOperationException {
+        Process sim = (Process) constructor.newInstance(30);
+        printReport.setBoolean(sim, false);
+        simPeriod.setDouble(sim, 20_000);
+        new Simulation().run(sim);
+        s.skiers += numberOfSkiers.getInt(sim);
+    }
+}
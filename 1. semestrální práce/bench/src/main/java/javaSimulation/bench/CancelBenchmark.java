@@ -0,0 +1,77 @@
+/*
+  File: CancelBenchmark.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation.bench;
+
+import java.util.concurrent.TimeUnit;
+import javaSimulation.*;
+import javaSimulation.Process;
+import org.openjdk.jmh.annotations.*;
+
+/**
+* The hold model where each process, before it holds, reactivates 
+* a random other process, which is thereby removed from the event 
+* list and inserted again, in nanoseconds per hold.
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class CancelBenchmark {
+    static final int HOLDS = 500_000;
+
+    @Param({"heap", "calendar", "ladder", "arrayHeap", "arrayHeapLazy"})
+    public String list;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Benchmark
+    @OperationsPerInvocation(HOLDS)
+    public long cancel() {
+        CancelModel m = new CancelModel(size, HOLDS);
+        new Simulation(EventLists.create(list)).run(m);
+        return m.count;
+    }
+
+    /**
+    * The hold model where each process, before it holds, reactivates 
+    * a random other process at an exponential delay.
+    */
+    static class CancelModel extends StepProcess {
+        final int size;
+        final long holds;
+        final Random random = new Random(7);
+        final Process[] processes;
+        long count;
+
+        CancelModel(int size, long holds) {
+            this.size = size;
+            this.holds = holds;
+            processes = new Process[size];
+        }
+
+        protected void actions() {
+            if (state++ > 0)
+                return;
+            for (int i = 0; i < size; i++)
+                activate(processes[i] = new Canceller(), delay, random.negexp(1));
+            hold((double) holds / size);
+        }
+
+        class Canceller extends StepProcess {
+            protected void actions() {
+                count++;
+                reactivate(processes[random.randInt(0, size - 1)], delay, 
+                           random.negexp(1));
+                hold(random.negexp(1));
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+/*
+  File: EventLists.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation.bench;
+
+import javaSimulation.*;
+
+/**
+* Creates the event lists compared by the benchmarks from the names 
+* used as their <tt>list</tt> parameter: <tt>linked</tt>, <tt>heap</tt>, 
+* <tt>calendar</tt>, <tt>ladder</tt>, <tt>arrayHeap</tt> and 
+* <tt>arrayHeapLazy</tt> (the array heap with lazy removal).
+*/
+final class EventLists {
+    private EventLists() {}
+
+    static EventList create(String name) {
+        switch (name) {
+        case "linked": return new LinkedEventList();
+        case "heap": return new HeapEventList();
+        case "calendar": return new CalendarEventList();
+        case "ladder": return new LadderEventList();
+        case "arrayHeap": return new ArrayHeapEventList();
+        case "arrayHeapLazy": return new ArrayHeapEventList(true);
+        default: throw new IllegalArgumentException("Unknown event list: " + name);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+  File: HeadBenchmark.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation.bench;
+
+import java.util.concurrent.TimeUnit;
+import javaSimulation.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+* <tt>into</tt>/<tt>out</tt>/<tt>first</tt>/<tt>cardinal</tt> on a 
+* <tt>Head</tt>, in nanoseconds per <tt>into</tt> or <tt>out</tt>,
+* without and with the time-weighted mean of the cardinal.
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class HeadBenchmark {
+    static final int SIZE = 1_000;
+
+    @Param({"false", "true"})
+    public boolean timed;
+
+    Head head;
+    Link[] links;
+
+    @Setup
+    public void setUp() {
+        head = new Head(timed);
+        links = new Link[SIZE];
+        for (int i = 0; i < SIZE; i++)
+            links[i] = new Link();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2 * SIZE)
+    public void intoOut(Blackhole bh) {
+        for (Link x : links)
+            x.into(head);
+        bh.consume(head.cardinal());
+        while (!head.empty())
+            head.first().out();
+    }
+}
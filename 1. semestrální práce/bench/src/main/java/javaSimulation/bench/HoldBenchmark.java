@@ -0,0 +1,129 @@
+/*
+  File: HoldBenchmark.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation.bench;
+
+import java.util.concurrent.TimeUnit;
+import javaSimulation.*;
+import javaSimulation.Process;
+import org.openjdk.jmh.annotations.*;
+
+/**
+* The hold model: each of <tt>size</tt> scheduled processes repeatedly 
+* holds for an exponential time, in nanoseconds per hold.
+* <p>
+* <tt>ordered</tt> runs stepped processes on each ordered event list, 
+* <tt>linked</tt> on the linked list, whose O(n) insertion is measured
+* for small queues only, and <tt>coroutine</tt> runs coroutine 
+* processes for a queue of two.
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class HoldBenchmark {
+    static final int HOLDS = 500_000, COROUTINE_HOLDS = 20_000;
+
+    @State(Scope.Benchmark)
+    public static class Ordered {
+        @Param({"heap", "calendar", "ladder", "arrayHeap"})
+        public String list;
+
+        @Param({"10", "100", "1000", "10000", "100000"})
+        public int size;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Linked {
+        @Param({"10", "100", "1000"})
+        public int size;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(HOLDS)
+    public long ordered(Ordered s) {
+        return HoldModel.run(EventLists.create(s.list), s.size, HOLDS, false);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(HOLDS)
+    public long linked(Linked s) {
+        return HoldModel.run(new LinkedEventList(), s.size, HOLDS, false);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COROUTINE_HOLDS)
+    public long coroutine() {
+        return HoldModel.run(new LinkedEventList(), 2, COROUTINE_HOLDS, true);
+    }
+
+    /**
+    * The hold model: <tt>size</tt> processes each hold for an
+    * exponential time with mean 1, until about <tt>holds</tt> holds 
+    * have been made.
+    */
+    static class HoldModel extends StepProcess {
+        final int size;
+        final long holds;
+        final Random random = new Random(7);
+        long count;
+
+        HoldModel(int size, long holds) {
+            this.size = size;
+            this.holds = holds;
+        }
+
+        protected void actions() {
+            if (state++ > 0)
+                return;
+            for (int i = 0; i < size; i++)
+                activate(new StepHolder(), delay, random.negexp(1));
+            hold((double) holds / size);
+        }
+
+        class StepHolder extends StepProcess {
+            protected void actions() {
+                count++;
+                hold(random.negexp(1));
+            }
+        }
+
+        class Holder extends Process {
+            protected void actions() {
+                while (true) {
+                    count++;
+                    hold(random.negexp(1));
+                }
+            }
+        }
+
+        static long run(EventList list, int size, long holds, boolean coroutines) {
+            HoldModel m = new HoldModel(size, holds);
+            new Simulation(list).run(coroutines ? new CoroutineMain(m) : m);
+            return m.count;
+        }
+    }
+
+    /**
+    * A coroutine main process that runs the hold model, since coroutine
+    * processes may not be activated by a stepped main process.
+    */
+    static class CoroutineMain extends Process {
+        final HoldModel m;
+
+        CoroutineMain(HoldModel m) {
+            this.m = m;
+        }
+
+        protected void actions() {
+            for (int i = 0; i < m.size; i++)
+                activate(m.new Holder(), delay, m.random.negexp(1));
+            hold((double) m.holds / m.size);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+  File: PeriodicBenchmark.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation.bench;
+
+import java.util.concurrent.TimeUnit;
+import javaSimulation.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+* <tt>size</tt> generators with fixed whole periods, run as processes 
+* that hold for their period (<tt>hold</tt>) and as timers of a 
+* <tt>TimerWheel</tt> (<tt>wheel</tt>), among 1000 processes that hold 
+* for exponential times with mean 100, in nanoseconds per firing.
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class PeriodicBenchmark {
+    static final int FIRINGS = 500_000;
+
+    @Param({"100", "10000"})
+    public int size;
+
+    @Benchmark
+    @OperationsPerInvocation(FIRINGS)
+    public long hold() {
+        return PeriodicModel.run(size, FIRINGS, false);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FIRINGS)
+    public long wheel() {
+        return PeriodicModel.run(size, FIRINGS, true);
+    }
+
+    /**
+    * <tt>size</tt> generators with periods between 1 and 100, and 
+    * 1000 processes that hold for exponential times with mean 100, 
+    * until about <tt>firings</tt> generator firings have been made.
+    */
+    static class PeriodicModel extends StepProcess {
+        final int size;
+        final long firings;
+        final boolean wheel;
+        final Random random = new Random(7);
+        long count;
+
+        PeriodicModel(int size, long firings, boolean wheel) {
+            this.size = size;
+            this.firings = firings;
+            this.wheel = wheel;
+        }
+
+        protected void actions() {
+            if (state++ > 0)
+                return;
+            for (int i = 0; i < 1_000; i++)
+                activate(new Holder(), delay, random.negexp(0.01));
+            TimerWheel w = new TimerWheel(1);
+            double periods = 0;
+            for (int i = 0; i < size; i++) {
+                int period = random.randInt(1, 100);
+                periods += 1.0 / period;
+                if (wheel)
+                    w.schedulePeriodic(period, period, () -> count++);
+                else
+                    activate(new Generator(period), delay, period);
+            }
+            hold(firings / periods);
+        }
+
+        class Holder extends StepProcess {
+            protected void actions() {
+                hold(random.negexp(0.01));
+            }
+        }
+
+        class Generator extends StepProcess {
+            final int period;
+
+            Generator(int period) {
+                this.period = period;
+            }
+
+            protected void actions() {
+                count++;
+                hold(period);
+            }
+        }
+
+        static long run(int size, long firings, boolean wheel) {
+            PeriodicModel m = new PeriodicModel(size, firings, wheel);
+            new Simulation(new HeapEventList()).run(m);
+            return m.count;
+        }
+    }
+}
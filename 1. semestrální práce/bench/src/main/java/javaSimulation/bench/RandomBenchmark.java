@@ -0,0 +1,173 @@
+/*
+  File: RandomBenchmark.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation.bench;
+
+import java.util.concurrent.TimeUnit;
+import javaSimulation.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+* Sampling of the distributions of <tt>Random</tt>, with the default 
+* stream and with xoshiro256**, in nanoseconds per value. 
+* The <tt>batch</tt> methods fill a block of 1024 values at a time.
+* <p>
+* The correctness of the fast samplers is checked by the 
+* <tt>DistributionCheck</tt> test.
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class RandomBenchmark {
+    static final int BLOCK = 1024;
+
+    @Param({"default", "xoshiro256"})
+    public String stream;
+
+    Random random;
+    final double[] block = new double[BLOCK];
+    final double[] p = {0.1, 0.3, 0.6, 1.0};
+    double[] w, c;
+    HistdTable ht;
+    DiscreteTable dt;
+
+    @Setup
+    public void setUp() {
+        random = stream.equals("xoshiro256") ? Random.xoshiro256(9) : new Random(9);
+        w = new double[40];
+        double sum = 0;
+        for (int i = 0; i < w.length; i++)
+            sum += w[i] = i % 7 == 3 ? 0 : 1 + (i * 37 % 11);
+        c = new double[w.length - 1];
+        double acc = 0;
+        for (int i = 0; i < c.length; i++)
+            c[i] = (acc += w[i]) / sum;
+        ht = new HistdTable(w);
+        dt = new DiscreteTable(c);
+    }
+
+    @Benchmark
+    public double uniform() {
+        return random.uniform(0, 1);
+    }
+
+    @Benchmark
+    public double normal() {
+        return random.normal(0, 1);
+    }
+
+    @Benchmark
+    public double negexp() {
+        return random.negexp(1);
+    }
+
+    @Benchmark
+    public double zigguratNormal() {
+        return random.zigguratNormal(0, 1);
+    }
+
+    @Benchmark
+    public double zigguratNegexp() {
+        return random.zigguratNegexp(1);
+    }
+
+    @Benchmark
+    public int poisson5() {
+        return random.poisson(5);
+    }
+
+    @Benchmark
+    public int poisson500() {
+        return random.poisson(500);
+    }
+
+    @Benchmark
+    public int fastPoisson5() {
+        return random.fastPoisson(5);
+    }
+
+    @Benchmark
+    public int fastPoisson500() {
+        return random.fastPoisson(500);
+    }
+
+    @Benchmark
+    public double erlang2() {
+        return random.erlang(1, 2);
+    }
+
+    @Benchmark
+    public double erlang50() {
+        return random.erlang(1, 50);
+    }
+
+    @Benchmark
+    public double fastErlang2() {
+        return random.fastErlang(1, 2);
+    }
+
+    @Benchmark
+    public double fastErlang50() {
+        return random.fastErlang(1, 50);
+    }
+
+    @Benchmark
+    public int discrete4() {
+        return random.discrete(p);
+    }
+
+    @Benchmark
+    public int discrete40() {
+        return random.discrete(c);
+    }
+
+    @Benchmark
+    public int discreteBinary40() {
+        return random.discrete(dt);
+    }
+
+    @Benchmark
+    public int histd40() {
+        return random.histd(w);
+    }
+
+    @Benchmark
+    public int histdAlias40() {
+        return random.histd(ht);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BLOCK)
+    public double[] batchUniform() {
+        random.uniform(0, 1, block);
+        return block;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BLOCK)
+    public double[] batchNegexp() {
+        random.negexp(1, block);
+        return block;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BLOCK)
+    public double[] batchZigguratNormal() {
+        random.zigguratNormal(0, 1, block);
+        return block;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BLOCK)
+    public double[] batchZigguratNegexp() {
+        random.zigguratNegexp(1, block);
+        return block;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+  File: SignalBenchmark.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation.bench;
+
+import java.util.concurrent.TimeUnit;
+import javaSimulation.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+* 100 processes that wait on a <tt>Condition</tt> and are all 
+* signalled at once, among <tt>size</tt> processes that hold for 
+* exponential times with mean 100, in nanoseconds per wakeup.
+* The linked list is measured for the small queue only.
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SignalBenchmark {
+    static final int WAKEUPS = 500_000;
+
+    @State(Scope.Benchmark)
+    public static class Ordered {
+        @Param({"heap", "calendar", "ladder", "arrayHeap"})
+        public String list;
+
+        @Param({"100", "10000"})
+        public int size;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WAKEUPS)
+    public long ordered(Ordered s) {
+        return SignalModel.run(EventLists.create(s.list), s.size, WAKEUPS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WAKEUPS)
+    public long linked() {
+        return SignalModel.run(new LinkedEventList(), 100, WAKEUPS);
+    }
+
+    /**
+    * 100 waiters that are signalled together at each time unit, 
+    * among <tt>size</tt> processes that hold for exponential times 
+    * with mean 100, until <tt>wakeups</tt> waiters have been signalled.
+    */
+    static class SignalModel extends StepProcess {
+        final int size;
+        final long wakeups;
+        final Random random = new Random(7);
+        final Condition condition = new Condition();
+        long count;
+
+        SignalModel(int size, long wakeups) {
+            this.size = size;
+            this.wakeups = wakeups;
+        }
+
+        protected void actions() {
+            if (state++ > 0)
+                return;
+            for (int i = 0; i < size; i++)
+                activate(new Holder(), delay, random.negexp(0.01));
+            for (int i = 0; i < 100; i++)
+                activate(new Waiter());
+            activate(new Signaller(), delay, 1);
+            hold(wakeups / 100 + 0.5);
+        }
+
+        class Holder extends StepProcess {
+            protected void actions() {
+                hold(random.negexp(0.01));
+            }
+        }
+
+        class Waiter extends StepProcess {
+            protected void actions() {
+                count++;
+                condition.await();
+            }
+        }
+
+        class Signaller extends StepProcess {
+            protected void actions() {
+                condition.signalAll();
+                hold(1);
+            }
+        }
+
+        static long run(EventList list, int size, long wakeups) {
+            SignalModel m = new SignalModel(size, wakeups);
+            new Simulation(list).run(m);
+            return m.count;
+        }
+    }
+}
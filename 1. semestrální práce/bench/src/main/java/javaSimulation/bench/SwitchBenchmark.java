@@ -0,0 +1,83 @@
+/*
+  File: SwitchBenchmark.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation.bench;
+
+import java.util.concurrent.TimeUnit;
+import javaSimulation.Coroutine;
+import org.openjdk.jmh.annotations.*;
+
+/**
+* Coroutine context switches (<tt>Coroutine.resume</tt>) for each 
+* backend, in nanoseconds per switch.
+* <p>
+* Virtual threads require Java 21, so the <tt>virtual</tt> backend 
+* must be run by a Java 21 JVM; on an older JVM it fails instead of 
+* measuring the platform threads it would fall back to.
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class SwitchBenchmark {
+    static final int SWITCHES = 20_000;
+
+    @Param({"platform", "virtual"})
+    public String backend;
+
+    @Setup
+    public void setUp() {
+        if (backend.equals("virtual") && !Coroutine.virtualThreadsSupported())
+            throw new IllegalStateException("Virtual threads require Java 21");
+        Coroutine.setBackend(backend.equals("virtual") ? Coroutine.VIRTUAL_THREADS 
+                                                       : Coroutine.PLATFORM_THREADS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        Coroutine.setBackend(Coroutine.PLATFORM_THREADS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SWITCHES)
+    public int pingPong() {
+        return PingPong.run(SWITCHES / 2);
+    }
+
+    /**
+    * Two coroutines that resume each other.
+    */
+    static class PingPong extends Coroutine {
+        final int n;
+        Coroutine other;
+        int count;
+
+        PingPong(int n) {
+            this.n = n;
+        }
+
+        protected void body() {
+            for (int i = 0; i < n; i++) {
+                count++;
+                resume(other);
+            }
+        }
+
+        /**
+        * Performs <tt>2n</tt> context switches.
+        */
+        static int run(int n) {
+            PingPong a = new PingPong(n), b = new PingPong(n - 1);
+            a.other = b;
+            b.other = a;
+            resume(a);
+            return a.count + b.count;
+        }
+    }
+}
@@ -1,16 +1,26 @@
 import javaSimulation.*;
 import javaSimulation.Process;
+import javaSimulation.statistics.*;
 
 public class CableCarSimulation extends Process {
 	/** Pocet kabin */
     int numberOfCableCars;
     
     /** Kapacita kabiny [pocet osob] */
-    int cableCarCapacity; 
+    int cableCarCapacity = 6; 
     
     /** Celkova delka lana [m] */ 
     int ropeLength = 4_000; 
     
+    /** Casova konstanta generovani kabin [s/m] */
+    double timeConstant = 0.4;
+    
+    /** 
+     * Casovac pravidelnych prijezdu kabin: perioda je zavisla na vzdalenosti 
+     * mezi kabinami, takze casovac nezatezuje kalendar udalosti 
+     */
+    TimerWheel.Timer departures;
+    
     /** Definice fronty kabin */
     Head cableCarsQueue = new Head();
     
@@ -21,37 +31,93 @@ public class CableCarSimulation extends Process {
     /** Poet lyzaru, kteri prosli frontou */
     int numberOfSkiers;
     
-    /** Definice fronty lyzar */
-    Head skiersQueue = new Head();
-    
-    /** Maximalni delka fronty lyzaru */
-    int maxLengthSkiersQueue;
+    /** Fronta lyzaru: kabina z ni bere najednou tolik lyzaru, kolik ma volnych mist */
+    BulkQueue skiers = new BulkQueue();
     
+    /** 
+     * Definice fronty lyzar: lyzari od prichodu az do nastoupeni, 
+     * tedy i ti, kteri prave nastupuji (jako pred zavedenim BulkQueue) 
+     */
+    Head skiersQueue = new Head();
     
+
     /** Doba simulace */
     double simPeriod = 600; // 600 s
     
-    /** Nahodna promenna pro generovani lyzaru do fronty s nasadou rovno 9 */
-    Random random = new Random(9);
+    /** Doba kabiny ve stanici [s] */
+    double stationTime = 40;
+    
+    /** Intenzita prichodu lyzaru [pocet lyzaru za sekundu] */
+    double arrivalRate = 5/60.0; // 5 lyzaru za minutu
+    
+    /** Stredni doba nastupu lyzare [s] */
+    double boardingMean = 5;
+    
+    /** Smerodatna odchylka doby nastupu lyzare [s] */
+    double boardingStandardDeviation = 0.5;
     
-    /** Celkov doba trvani vsech pruchod lidi ve fronte */
-    double throughTime; 
+    /** 
+     * Nahodne proudy: kazdy zdroj nahodnosti ma vlastni proud, takze 
+     * simulace s ruznym poctem kabin a stejnou nasadou vidi stejne 
+     * prichody i doby nastupu (spolecna nahodna cisla). 
+     */
+    RandomStreams streams;
+    
+    /** Nahodna promenna pro generovani prichodu lyzaru do fronty */
+    Random arrivals;
+    
+    /** Nahodna promenna pro generovani doby nastupu lyzaru */
+    Random boarding;
+    
+    /** Vypis vysledku na konci simulace */
+    boolean printReport = true;
+    
+    /** Doby pruchodu lyzaru frontou */
+    Tally waitingTimes = new Tally();
+    
+    /** Prumerna delka fronty lyzaru za dobu prichodu lyzaru (do simPeriod) */
+    double meanQueueLength;
+    
+    /** Rozdeleni doby pruchodu frontou (relativni presnost 1/16) */
+    Histogram waitingTimeHistogram = Histogram.logarithmic(0.01, 100_000, 16);
+    
+    /** Doby pruchodu frontou v ustalenem stavu (bez zahrivaci faze, MSER-5) */
+    BatchMeans steadyWaitingTimes = new BatchMeans();
     
     /** Cas zacatku simulace */
     long startTime = System.currentTimeMillis();
     
     /** Konstruktor tridy CableCarSimulation */
     CableCarSimulation(int n) { 
+    	this(n, 9); 
+    }
+    
+    /** Konstruktor tridy CableCarSimulation s danou nasadou */
+    CableCarSimulation(int n, long seed) { 
+    	this(n, new RandomStreams(seed)); 
+    }
+    
+    /** Konstruktor tridy CableCarSimulation s danymi nahodnymi proudy */
+    CableCarSimulation(int n, RandomStreams streams) { 
     	numberOfCableCars = n; 
+    	this.streams = streams;
+    	arrivals = streams.stream("arrivals");
+    	boarding = streams.stream("boarding");
     }
   
     
     public void actions() { 
-    	activate(new CableCarGenerator());
+    	skiersQueue.resetStatistics();
+    	double generatorPeriod = (double) ropeLength / numberOfCableCars * timeConstant;
+    	departures = new TimerWheel(generatorPeriod)
+    			.schedulePeriodic(0, generatorPeriod, this::cableCarArrival);
     	activate(new SkiersGenerator());
     	
-        hold(simPeriod + 10000);	
-        report();
+        hold(simPeriod);
+        meanQueueLength = skiersQueue.meanCardinal(); // po dobe prichodu fronta uz jen ubyva
+        hold(10000);	
+        if (printReport)
+            report();
     }
 	
     void report() {
@@ -62,8 +128,19 @@ public class CableCarSimulation extends Process {
         System.out.println("Total number of skiers = " + numberOfSkiers);
         java.text.NumberFormat fmt = java.text.NumberFormat.getNumberInstance();
         fmt.setMaximumFractionDigits(2);
-        System.out.println("Average waiting queue time = " + fmt.format(throughTime/numberOfSkiers));
-        System.out.println("Maximum queue length of skiers = " + maxLengthSkiersQueue);
+        System.out.println("Average waiting queue time = " + fmt.format(averageWaitingTime()));
+        if (waitingTimeHistogram.count() > 0)
+            System.out.println("Waiting queue time p50/p95/p99 = " + 
+                               fmt.format(waitingTimeHistogram.percentile(50)) + " / " +
+                               fmt.format(waitingTimeHistogram.percentile(95)) + " / " +
+                               fmt.format(waitingTimeHistogram.percentile(99)));
+        if (steadyWaitingTimes.size() >= 2)
+            System.out.println("Steady-state waiting queue time = " + 
+                               fmt.format(steadyWaitingTimes.mean()) + " +/- " + 
+                               fmt.format(steadyWaitingTimes.halfWidth(0.95)) + 
+                               " (warm-up until " + fmt.format(steadyWaitingTimes.warmupTime()) + " s)");
+        System.out.println("Maximum queue length of skiers = " + skiersQueue.maxCardinal());
+        System.out.println("Average queue length of skiers = " + fmt.format(meanQueueLength));
         System.out.println("\nExecution time: " +
                            fmt.format((System.currentTimeMillis() 
                                        - startTime)/1000.0) +			   
@@ -71,39 +148,12 @@ public class CableCarSimulation extends Process {
     }
 	
     
-    class Skier extends Process {
-    	double desiredStandardDeviation = 0.5; // rozptyl normalniho rozdeleni 
-    	double desiredMean = 5; // stredni hodnota normalniho rozdeleni (stredni doba nastupu lyzare)
+    /** Lyzar neni proces: nastupuje ho kabina, ktera odveze celou skupinu */
+    class Skier extends Link {
+    	double entryTime = time(); 
     	
-        public void actions() {
-            double entryTime = time();
-            into(skiersQueue);
-            numberOfSkiers++;
-            int qLength = skiersQueue.cardinal();
-            if (maxLengthSkiersQueue < qLength) 
-                maxLengthSkiersQueue = qLength;
-       
-            while (cableCarsQueue.empty() || this != skiersQueue.first()) { // lyzar neni prvni nebo nema kam nastoupit
-            	passivate();
-            }
-            
-            CableCar cableCar = (CableCar) cableCarsQueue.first(); // nastoupi do prvni dostupne kabiny
-            double enteringTime = random.nextGaussian() * desiredStandardDeviation + desiredMean; // doba nastupu lyzare
-            
-            if (cableCar.remainingPlaces > 0) { // kabina ma volna mista
-	        	cableCar.remainingPlaces--; 
-	        	hold(enteringTime); 
-	        	out(); // prvni lyzar odstranen z fronty
-            	
-	        	if (cableCar.remainingPlaces == 0) // kabina je plna
-	        		activate(cableCar);
-            	
-            	Skier successor = (Skier) skiersQueue.first(); // nasledujici lyzar ve fronte, ktery je ted prvni na rade
-                if (successor != null) // pokud je dalsi lyzar ve fronte
-                   activate(successor); // aktivuji dalsiho lyzare ve fronte
-             }
-            throughTime += time() - entryTime;
-        }
+    	/** Misto lyzare ve fronte skiersQueue (lyzar sam je v BulkQueue) */
+    	Link place = new Link();
     }
 
     class CableCar extends Process {
@@ -112,53 +162,159 @@ public class CableCarSimulation extends Process {
     	protected int remainingPlaces; 
     	
     	/** Doba lanovky ve stanici (doba, kdy je mozne do lanovky nastoupit) */
-    	protected double timeInStation = 40; // s
+    	protected double timeInStation = stationTime; // s
+    	
+    	/** Skupina lyzaru, kteri prave nastupuji */
+    	Link[] group;
     	
     	public CableCar(int capacity) {
-    		cableCarCapacity = capacity;  
-    		remainingPlaces = cableCarCapacity; 
+    		remainingPlaces = capacity; 
+    		group = new Link[capacity];
     	}
     	
         public void actions() { 
         	into(cableCarsQueue);
-	        Skier served = (Skier) skiersQueue.first(); // prvni lyzar z fronty
-	        activate(served); 
-	        hold(timeInStation); // kabinka ceka ve stanici urcitou dobu
-	        if (remainingPlaces > 0 && !(skiersQueue.empty())) 
-	        	passivate();
-	        out(); // po uplynute dobe je prvni kabinka odstranena z fronty
+        	double departureTime = time() + timeInStation; 
+        	while (remainingPlaces > 0) {
+        		// kabina ceka ve stanici na lyzare nejdele do odjezdu, 
+        		// po odjezdu uz jen nastoupi lyzari, kteri cekaji
+        		int n = skiers.take(group, 1, remainingPlaces, Math.max(departureTime - time(), 0));
+        		if (n == 0) 
+        			break;
+        		remainingPlaces -= n;
+        		double boardingTime = 0; // lyzari nastupuji po jednom, kabina ceka na celou skupinu
+        		for (int i = 0; i < n; i++) {
+        			Skier skier = (Skier) group[i];
+        			group[i] = null;
+        			boardingTime += boarding.normal(boardingMean, boardingStandardDeviation); // doba nastupu lyzare
+        			double waitingTime = time() + boardingTime - skier.entryTime;
+        			waitingTimes.add(waitingTime);
+        			waitingTimeHistogram.add(waitingTime);
+        			steadyWaitingTimes.add(waitingTime);
+        			Event.schedule(boardingTime, skier.place::out); // lyzar nastoupil, opousti frontu (bez prepnuti procesu)
+        		}
+        		hold(boardingTime); 
+        	}
+	        out(); // kabinka odjizdi, je odstranena z fronty
         }
     }
 
     
-    class SkiersGenerator extends Process {
-        public void actions() {
-             while (time() <= simPeriod) {
-                  activate(new Skier());
-                  hold(random.negexp(5/60.0)); // 5 lyzaru se stredni hodnotou rovne 1 minute (= 60 sekund) 
+    /** Prichod lyzare: udalost, ktera se opakuje az do konce doby simulace */
+    class SkiersGenerator extends Event {
+    	/** Predem vygenerovane doby mezi prichody (proud prichodu nikdo jiny nepouziva) */
+    	double[] interarrivalTimes = new double[64];
+    	int next = interarrivalTimes.length;
+    	
+        protected void execute() {
+             if (time() > simPeriod)
+                  return;
+             numberOfSkiers++;
+             Skier skier = new Skier();
+             skier.place.into(skiersQueue);
+             skiers.put(skier);
+             if (next == interarrivalTimes.length) {
+                  arrivals.negexp(arrivalRate, interarrivalTimes); // implicitne 5 lyzaru se stredni hodnotou rovne 1 minute (= 60 sekund)
+                  next = 0;
              }
+             hold(interarrivalTimes[next++]); 
         }
     }
     
     
-    class CableCarGenerator extends Process {
-    	double distanceCableCars = (double) ropeLength / numberOfCableCars;
-    	double timeConstant = 0.4; 
-    	double generatorPeriod = distanceCableCars * timeConstant; // s
-    	
-    	public void actions() {
-    		while (time() <= simPeriod) {
-    			activate(new CableCar(6));
-    			cableCarsCounter++; 
-    			hold(generatorPeriod); // pravidelne generovani kabin, zavisle na vzdalenosti 
-    								   // mezi jednotlivymi kabinami 
-    		}
+    /** Prijezd kabiny: opakuje se casovacem az do konce doby simulace */
+    void cableCarArrival() {
+    	if (time() > simPeriod) {
+    		departures.cancel();
+    		return;
     	}
+    	activate(new CableCar(cableCarCapacity));
+    	cableCarsCounter++;
     }
 
    
+    /** Prumerna doba cekani ve fronte */
+    double averageWaitingTime() {
+        return waitingTimes.sum() / numberOfSkiers;
+    }
+    
+    /** Prumerna doba cekani lyzaru, kteri nastoupili */
+    double averageServedWaitingTime() {
+        return waitingTimes.count() > 0 ? waitingTimes.mean() : 0;
+    }
+    
+    /** Podil lyzaru, kteri do konce simulace nenastoupili */
+    double unservedShare() {
+        return numberOfSkiers > 0 ? 1 - (double) waitingTimes.count() / numberOfSkiers : 0;
+    }
+   
+    /** 
+     * Bez argumentu probehne jedna simulace. 
+     * Argument udava pocet nezavislych replikaci, ktere probehnou paralelne.
+     * S druhym argumentem "antithetic" probehne dany pocet dvojic 
+     * antitetickych replikaci.
+     * S argumenty "precision p" probiha tolik replikaci, az je relativni 
+     * polovicni sirka 95% intervalu spolehlivosti vysledku nejvyse p.
+     * S argumenty "steady T" probehne jedna dlouha simulace s dobou T [s], 
+     * ze ktere se odhadne doba cekani v ustalenem stavu metodou 
+     * davkovych prumeru.
+     */
     public static void main(String args[]) {
-        activate(new CableCarSimulation(30));
+        if (args.length == 0) {
+            activate(new CableCarSimulation(30));
+            return;
+        }
+        if (args[0].equals("steady")) {
+            CableCarSimulation sim = new CableCarSimulation(30);
+            sim.simPeriod = Double.parseDouble(args[1]);
+            activate(sim);
+            return;
+        }
+        if (args[0].equals("precision")) {
+            long startTime = System.currentTimeMillis();
+            SequentialReplications<CableCarSimulation> runs = 
+                new SequentialReplications<CableCarSimulation>(seed -> {
+                    CableCarSimulation sim = new CableCarSimulation(30, seed);
+                    sim.printReport = false;
+                    return sim;
+                })
+                .result("Average waiting queue time", CableCarSimulation::averageWaitingTime)
+                .result("Maximum queue length of skiers", sim -> sim.skiersQueue.maxCardinal())
+                .precision(args.length > 1 ? Double.parseDouble(args[1]) : 0.05)
+                .run();
+            System.out.println("Replications of 30 cable cars simulation until precision is met");
+            runs.write(System.out);
+            System.out.println("\nExecution time: " + 
+                               (System.currentTimeMillis() - startTime) / 1000.0 + " secs.\n");
+            return;
+        }
+        int n = Integer.parseInt(args[0]);
+        long startTime = System.currentTimeMillis();
+        if (args.length > 1 && args[1].equals("antithetic")) {
+            java.util.List<CableCarSimulation> runs = Replications.runAntithetic(n, 9, streams -> {
+                CableCarSimulation sim = new CableCarSimulation(30, streams);
+                sim.printReport = false;
+                return sim;
+            });
+            System.out.println(n + " antithetic pairs of 30 cable cars simulation");
+            System.out.println("Average waiting queue time: " + 
+                               Replications.summarizePairs(runs, CableCarSimulation::averageWaitingTime));
+            System.out.println("Maximum queue length of skiers: " + 
+                               Replications.summarizePairs(runs, sim -> sim.skiersQueue.maxCardinal()));
+        } else {
+            java.util.List<CableCarSimulation> runs = Replications.run(n, 9, seed -> {
+                CableCarSimulation sim = new CableCarSimulation(30, seed);
+                sim.printReport = false;
+                return sim;
+            });
+            System.out.println(n + " replications of 30 cable cars simulation");
+            System.out.println("Average waiting queue time: " + 
+                               Replications.summarize(runs, CableCarSimulation::averageWaitingTime));
+            System.out.println("Maximum queue length of skiers: " + 
+                               Replications.summarize(runs, sim -> sim.skiersQueue.maxCardinal()));
+        }
+        System.out.println("\nExecution time: " + 
+                           (System.currentTimeMillis() - startTime) / 1000.0 + " secs.\n");
     } 
     
 }
@@ -0,0 +1,68 @@
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.List;
+import javaSimulation.*;
+
+/**
+ * Prohledavani parametru simulace lanovky.
+ * <p>
+ * Pro vsechny kombinace poctu kabin, kapacity kabiny, delky lana,
+ * stredni doby nastupu a intenzity prichodu lyzaru probehne dany pocet
+ * replikaci a vysledky se zapisi do jedne tabulky. Potom se pro kazdou
+ * kombinaci ostatnich parametru ternarnim vyhledavanim najde pocet kabin
+ * s nejmensi cenou (naklady na kabiny a na cekani lyzaru). Doba cekani 
+ * se prumeruje jen pres lyzare, kteri nastoupili; lyzari, kteri do konce 
+ * simulace nenastoupili (pretizena lanovka), se zapocitaji pokutou.
+ * <p>
+ * Argumenty: [soubor s tabulkou] [pocet replikaci]
+ */
+public class CableCarSweep {
+	/** Naklady na jednu kabinu (v jednotkach doby cekani lyzare [s]) */
+	static final double CABLE_CAR_COST = 0.2;
+	
+	/** Pokuta za lyzare, ktery nenastoupil (v jednotkach doby cekani [s]) */
+	static final double UNSERVED_PENALTY = 3600;
+	
+    public static void main(String args[]) throws FileNotFoundException {
+        PrintStream out = args.length > 0 ? new PrintStream(args[0]) : System.out;
+        int replications = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        long startTime = System.currentTimeMillis();
+        
+        ParameterSweep<CableCarSimulation> sweep = 
+            new ParameterSweep<CableCarSimulation>((p, seed) -> {
+                CableCarSimulation sim = new CableCarSimulation(p.intValue("cabins"), seed);
+                sim.cableCarCapacity = p.intValue("capacity");
+                sim.ropeLength = p.intValue("rope");
+                sim.boardingMean = p.value("boarding");
+                sim.arrivalRate = p.value("arrivals") / 60;
+                sim.printReport = false;
+                return sim;
+            })
+            .range("cabins", 10, 40, 10)
+            .parameter("capacity", 4, 6, 8)
+            .parameter("rope", 4_000)
+            .parameter("boarding", 4, 5)
+            .parameter("arrivals", 5, 10) // pocet lyzaru za minutu
+            .result("wait", CableCarSimulation::averageServedWaitingTime)
+            .result("unserved", CableCarSimulation::unservedShare)
+            .result("waitP95", sim -> sim.waitingTimeHistogram.count() > 0 ? 
+                                      sim.waitingTimeHistogram.percentile(95) : 0)
+            .result("maxQueue", sim -> sim.skiersQueue.maxCardinal())
+            .result("meanQueue", sim -> sim.meanQueueLength)
+            .replications(replications);
+        
+        sweep.write(sweep.grid(), out);
+        out.println();
+        
+        sweep.range("cabins", 5, 60, 5);
+        List<ParameterSweep.Point> best = 
+            sweep.minimize("cabins", p -> CABLE_CAR_COST * p.value("cabins") + p.mean("wait") 
+                                          + UNSERVED_PENALTY * p.mean("unserved"));
+        sweep.write(best, out);
+        if (out != System.out)
+            out.close();
+        
+        System.out.println("Execution time: " + 
+                           (System.currentTimeMillis() - startTime) / 1000.0 + " secs.");
+    }
+}
@@ -0,0 +1,30 @@
+/*
+  File: AntitheticStream.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+
+/**
+* A <tt>RandomStream</tt> that returns the complemented bits of 
+* another stream.
+* A uniform <tt>u</tt> drawn from the other stream becomes
+* 1 - 2<sup>-53</sup> - <tt>u</tt>.
+*/
+final class AntitheticStream implements RandomStream {
+    private final RandomStream stream;
+
+    AntitheticStream(RandomStream stream) {
+        this.stream = stream;
+    }
+
+    public long nextLong() {
+        return ~stream.nextLong();
+    }
+
+    public RandomStream split() {
+        return new AntitheticStream(stream.split());
+    }
+}
@@ -0,0 +1,282 @@
+/*
+  File: ArrayHeapEventList.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+import java.util.Arrays;
+
+/**
+* An event list represented by a binary heap held in parallel
+* primitive arrays.<p>
+*
+* Each scheduled process is given a slot, a small integer that
+* indexes the table of processes. The heap itself is held as three
+* arrays: the event times, the sequence numbers and the slots, and
+* a fourth array maps each slot to its position in the heap.
+* A sift therefore reads and writes only these arrays, which lie
+* contiguously in memory, and never touches a <tt>Process</tt>
+* object. The arrays grow by doubling, and slots are recycled, so
+* scheduling allocates nothing once the arrays are large enough.
+* <p>
+* Insertion and removal take O(log n) time; the first process is
+* found in constant time. The process after a given process, and 
+* the processes with a given event time, are found by searching 
+* the heap only below the entries that precede them.
+* <p>
+* Removal may be made lazy when the list is created. A process
+* that is cancelled or passivated is then only marked as gone from
+* its slot, and its entry is left in the heap as a tombstone, which
+* is discarded when it reaches the top. Since the slot is not
+* reused until then, the process may be scheduled again at once in
+* a new slot. When more than one entry in eight is a tombstone,
+* the heap is compacted in linear time. Lazy removal takes
+* amortized constant time and touches only the slot table, which
+* pays off for very large event lists with frequent cancellations
+* and reactivations; for smaller lists the removal of an entry
+* from the heap is cheaper than carrying its tombstone.
+*
+* @see javaSimulation.EventList
+* @see javaSimulation.HeapEventList
+*/
+public class ArrayHeapEventList extends OrderedEventList {
+    // The heap, ordered by (times[i], seqs[i])
+    private double[] times = new double[64];
+    private double[] seqs = new double[64];
+    private int[] slots = new int[64];
+    private int size;
+
+    /**
+    * The number of tombstones in the heap.
+    */
+    private int stale;
+
+    // The slot table: the process in each slot, the position of each
+    // slot in the heap, and a stack of free slots
+    private Process[] procs = new Process[64];
+    private int[] pos = new int[64];
+    private int[] free = new int[64];
+    private int freeCount, slotCount;
+
+    private final boolean lazy;
+
+    /**
+    * Creates an event list with immediate removal.
+    */
+    public ArrayHeapEventList() {
+        this(false);
+    }
+
+    /**
+    * Creates an event list.
+    *
+    * @param <tt>lazy</tt> <tt>true</tt> if removed processes are to
+    * be left in the heap as tombstones.
+    */
+    public ArrayHeapEventList(boolean lazy) {
+        this.lazy = lazy;
+    }
+
+    Process first() {
+        while (size > 0) {
+            Process p = procs[slots[0]];
+            if (p != null)
+                return p;
+            stale--;
+            removeAt(0);
+        }
+        return null;
+    }
+
+    Process next(Process p) {
+        if (p != first())
+            return successor(0, p, -1);
+        if (size == 1)
+            return null;
+        int c = size > 2 && less(2, 1) ? 2 : 1;
+        Process q = procs[slots[c]];
+        if (q == null || size > 2 && procs[slots[3 - c]] == null)
+            return successor(0, p, -1);
+        return q;
+    }
+
+    void gather(double t) {
+        gather(0, t);
+    }
+
+    void add(Process p) {
+        if (size == times.length)
+            grow();
+        int slot = freeCount > 0 ? free[--freeCount] : slotCount++;
+        procs[slot] = p;
+        p.EVINDEX = slot;
+        siftUp(size++, p.EVTIME, p.EVSEQ, slot);
+    }
+
+    void delete(Process p) {
+        int slot = p.EVINDEX;
+        procs[slot] = null;
+        p.EVINDEX = -1;
+        if (!lazy)
+            removeAt(pos[slot]);
+        else if (++stale > size >>> 3)
+            compact();
+    }
+
+    void reschedule(Process p, double t) {
+        int slot = p.EVINDEX;
+        int i = pos[slot];
+        p.EVTIME = t;
+        renumber(p);
+        siftDown(i, t, p.EVSEQ, slot);
+        if (slots[i] == slot)
+            siftUp(i, t, p.EVSEQ, slot);
+    }
+
+    public int size() {
+        return size - stale;
+    }
+
+    /**
+    * Removes the entry at heap position <tt>i</tt>, whose process
+    * is gone, and frees its slot.
+    */
+    private void removeAt(int i) {
+        int slot = slots[i];
+        int last = --size;
+        if (i != last) {
+            double t = times[last], s = seqs[last];
+            int l = slots[last];
+            siftDown(i, t, s, l);
+            if (slots[i] == l)
+                siftUp(i, t, s, l);
+        }
+        free[freeCount++] = slot;
+    }
+
+    /**
+    * Removes all tombstones and rebuilds the heap from the remaining
+    * entries, in linear time.
+    */
+    private void compact() {
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            int slot = slots[i];
+            if (procs[slot] == null)
+                free[freeCount++] = slot;
+            else {
+                times[n] = times[i];
+                seqs[n] = seqs[i];
+                slots[n] = slot;
+                pos[slot] = n++;
+            }
+        }
+        size = n;
+        stale = 0;
+        for (int i = (n >>> 1) - 1; i >= 0; i--)
+            siftDown(i, times[i], seqs[i], slots[i]);
+    }
+
+    /**
+    * Returns the first process in the subheap at position <tt>i</tt> 
+    * that follows <tt>p</tt>, if it precedes the entry at position 
+    * <tt>best</tt>; otherwise the process at <tt>best</tt>, or 
+    * <tt>null</tt> if <tt>best</tt> is -1. Tombstones are passed over.
+    */
+    private Process successor(int i, Process p, int best) {
+        if (i < size && (best < 0 || less(i, best))) {
+            double t = times[i];
+            if (procs[slots[i]] != null && 
+                (p.EVTIME < t || p.EVTIME == t && p.EVSEQ < seqs[i]))
+                return procs[slots[i]];
+            Process q = successor(2 * i + 1, p, best);
+            if (q != null)
+                best = pos[q.EVINDEX];
+            return successor(2 * i + 2, p, best);
+        }
+        return best < 0 ? null : procs[slots[best]];
+    }
+
+    /**
+    * Collects the processes with event time <tt>t</tt> in the 
+    * subheap at position <tt>i</tt>.
+    */
+    private void gather(int i, double t) {
+        if (i >= size || times[i] > t)
+            return;
+        Process p = procs[slots[i]];
+        if (p != null && times[i] == t)
+            gathered(p);
+        gather(2 * i + 1, t);
+        gather(2 * i + 2, t);
+    }
+
+    /**
+    * Tests if the entry at heap position <tt>i</tt> precedes the
+    * entry at position <tt>j</tt>.
+    */
+    private boolean less(int i, int j) {
+        return times[i] < times[j] ||
+               times[i] == times[j] && seqs[i] < seqs[j];
+    }
+
+    private void siftUp(int i, double t, double s, int slot) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            double pt = times[parent];
+            if (t > pt || t == pt && s >= seqs[parent])
+                break;
+            move(parent, i);
+            i = parent;
+        }
+        set(i, t, s, slot);
+    }
+
+    private void siftDown(int i, double t, double s, int slot) {
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1, right = child + 1;
+            if (right < size && less(right, child))
+                child = right;
+            double ct = times[child];
+            if (ct > t || ct == t && seqs[child] >= s)
+                break;
+            move(child, i);
+            i = child;
+        }
+        set(i, t, s, slot);
+    }
+
+    /**
+    * Moves the entry at heap position <tt>from</tt> to position
+    * <tt>to</tt>.
+    */
+    private void move(int from, int to) {
+        times[to] = times[from];
+        seqs[to] = seqs[from];
+        int slot = slots[to] = slots[from];
+        pos[slot] = to;
+    }
+
+    private void set(int i, double t, double s, int slot) {
+        times[i] = t;
+        seqs[i] = s;
+        slots[i] = slot;
+        pos[slot] = i;
+    }
+
+    /**
+    * Doubles the capacity of the heap and the slot table.
+    */
+    private void grow() {
+        int n = 2 * times.length;
+        times = Arrays.copyOf(times, n);
+        seqs = Arrays.copyOf(seqs, n);
+        slots = Arrays.copyOf(slots, n);
+        procs = Arrays.copyOf(procs, n);
+        pos = Arrays.copyOf(pos, n);
+        free = Arrays.copyOf(free, n);
+    }
+}
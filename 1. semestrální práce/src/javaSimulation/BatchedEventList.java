@@ -0,0 +1,147 @@
+/*
+  File: BatchedEventList.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+
+/**
+* The event list of a simulation: the event list selected for the
+* simulation, together with the batch of processes scheduled at
+* the current time while it is current.
+* <p>
+* A process that is activated at the current time, such as a process
+* activated directly or with <tt>delay 0</tt>, is not inserted into
+* the selected list. It is added in constant time to one of two
+* two-way lists: the front of the batch, if it is scheduled
+* <tt>prior</tt>, and otherwise the back of the batch. While the
+* batch is not empty, a process rescheduled at the current time,
+* as by <tt>hold(0)</tt>, is moved to its back as well.
+* The processes that were already scheduled for the current time
+* remain in the selected list, between the front and the back, so
+* a process that is alone at its event time is never moved.
+* <p>
+* Only the scheduling is batched. The processes of the batch become
+* current one at a time, in event list order, as for any other
+* event time: each of them may activate or cancel others, and a
+* process activated directly must run before the rest of the batch.
+* When the batch is empty, the clock advances to the event time of
+* the first process of the selected list.
+*
+* @see javaSimulation.EventList
+*/
+final class BatchedEventList extends EventList {
+    private final EventList list;
+    private final EventBucket front = new EventBucket(), back = new EventBucket();
+
+    /**
+    * The current time, while the batch is not empty.
+    */
+    private double now;
+
+    BatchedEventList(EventList list) {
+        this.list = list;
+    }
+
+    Process first() {
+        Process p = front.head;
+        if (p != null)
+            return p;
+        if (back.head == null)
+            return list.first();
+        p = list.first();
+        return p != null && p.EVTIME == now ? p : back.head;
+    }
+
+    Process next(Process p) {
+        EventBucket b = p.EVBUCKET;
+        if (b == back || b == front && p.EVSUC != null)
+            return p.EVSUC != null ? p.EVSUC : later();
+        Process q = b == front ? list.first() : list.next(p);
+        if (back.head == null || b != front && p.EVTIME != now ||
+            q != null && q.EVTIME == now)
+            return q;
+        return back.head;
+    }
+
+    void insert(Process p, boolean prior) {
+        double t = p.EVTIME;
+        if (front.head == null && back.head == null) {
+            Process q = list.first();
+            if (q == null || q.EVTIME != t) {
+                list.insert(p, prior);
+                return;
+            }
+            now = t;
+        } else if (t != now) {
+            list.insert(p, prior);
+            return;
+        }
+        if (prior)
+            front.addAfter(p, null);
+        else
+            back.addLast(p);
+        p.SCHEDULED = true;
+    }
+
+    void insertBefore(Process p, Process q) {
+        EventBucket b = q.EVBUCKET;
+        if (b != front && b != back)
+            list.insertBefore(p, q);
+        else {
+            p.EVTIME = q.EVTIME;
+            b.addAfter(p, q.EVPRED);
+            p.SCHEDULED = true;
+        }
+    }
+
+    void insertAfter(Process p, Process q) {
+        EventBucket b = q.EVBUCKET;
+        if (b != front && b != back)
+            list.insertAfter(p, q);
+        else {
+            p.EVTIME = q.EVTIME;
+            b.addAfter(p, q);
+            p.SCHEDULED = true;
+        }
+    }
+
+    void remove(Process p) {
+        EventBucket b = p.EVBUCKET;
+        if (b != front && b != back)
+            list.remove(p);
+        else {
+            b.remove(p);
+            p.SCHEDULED = false;
+        }
+    }
+
+    void reschedule(Process p, double t) {
+        EventBucket b = p.EVBUCKET;
+        if (b != front && b != back &&
+            (t != now || front.head == null && back.head == null))
+            list.reschedule(p, t);
+        else {
+            remove(p);
+            p.EVTIME = t;
+            insert(p, false);
+        }
+    }
+
+    public int size() {
+        return front.size + list.size() + back.size;
+    }
+
+    /**
+    * Returns the first process of the selected list that is
+    * scheduled after the current time.
+    */
+    private Process later() {
+        Process q = list.first();
+        while (q != null && q.EVTIME == now)
+            q = list.next(q);
+        return q;
+    }
+}
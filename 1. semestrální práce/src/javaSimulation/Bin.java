@@ -0,0 +1,165 @@
+/*
+  File: Bin.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+
+/**
+* This class may be used for a stock of identical items, such as
+* free seats or parts in a buffer, that processes put into and take
+* out of the bin.
+* <p>
+* A process that takes more items than the bin holds waits in
+* a first-come, first-served queue of takers; a process that would
+* fill the bin beyond its capacity waits in a queue of putters.
+* Each call hands items over directly to the waiting processes
+* that can go ahead, in queue order, and only these processes are
+* activated.
+* <p>
+* A stepped process must return from <tt>actions</tt> after calling
+* <tt>take</tt> or <tt>put</tt>; it continues when the call is complete.
+*
+* @see javaSimulation.Resource
+* @see javaSimulation.Store
+*/
+
+public class Bin {
+    private final int capacity;
+    private int level;
+    private final Head takers = new Head(), putters = new Head();
+
+    /**
+    * Creates an unbounded bin with the specified number of items.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>initial</tt> is negative.
+    */
+    public Bin(int initial) {
+        this(initial, Integer.MAX_VALUE);
+    }
+
+    /**
+    * Creates a bin with the specified number of items and capacity.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>initial</tt> is negative or exceeds <tt>capacity</tt>.
+    */
+    public Bin(int initial, int capacity) {
+        if (initial < 0 || initial > capacity)
+            error("Bin: Illegal initial number of items");
+        level = initial;
+        this.capacity = capacity;
+    }
+
+    /**
+    * Takes <tt>n</tt> items for the current process.
+    * The process waits if other processes are waiting to take,
+    * or if the bin holds fewer than <tt>n</tt> items.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>n</tt> is not positive or exceeds the capacity.
+    */
+    public void take(int n) {
+        if (n <= 0 || n > capacity)
+            error("take: Illegal number of items");
+        if (takers.empty() && n <= level) {
+            level -= n;
+            wakePutters();
+            Process.proceed();
+            return;
+        }
+        Process.current().AMOUNT = n;
+        Process.wait(takers);
+    }
+
+    /**
+    * Puts <tt>n</tt> items into the bin.
+    * The current process waits if other processes are waiting to put,
+    * or if there is no room for <tt>n</tt> more items.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>n</tt> is not positive or exceeds the capacity.
+    */
+    public void put(int n) {
+        if (n <= 0 || n > capacity)
+            error("put: Illegal number of items");
+        if (putters.empty() && n <= capacity - level) {
+            level += n;
+            wakeTakers();
+            Process.proceed();
+            return;
+        }
+        Process.current().AMOUNT = n;
+        Process.wait(putters);
+    }
+
+    /**
+    * Returns the number of items in the bin.
+    */
+    public final int level() {
+        return level;
+    }
+
+    /**
+    * Returns the capacity.
+    */
+    public final int capacity() {
+        return capacity;
+    }
+
+    /**
+    * Returns the queue of processes waiting to take.
+    */
+    public final Head takers() {
+        return takers;
+    }
+
+    /**
+    * Returns the queue of processes waiting to put.
+    */
+    public final Head putters() {
+        return putters;
+    }
+
+    /**
+    * Completes the waiting takes that can go ahead, and the puts
+    * for which they make room.
+    */
+    private void wakeTakers() {
+        Process p;
+        while ((p = (Process) takers.first()) != null && p.AMOUNT <= level) {
+            level -= p.AMOUNT;
+            p.out();
+            Process.activate(p, Process.delay, 0);
+            wakePutters();
+        }
+    }
+
+    /**
+    * Completes the waiting puts that can go ahead, and the takes
+    * for which they supply items.
+    */
+    private void wakePutters() {
+        Process p;
+        while ((p = (Process) putters.first()) != null && p.AMOUNT <= capacity - level) {
+            level += p.AMOUNT;
+            p.out();
+            Process.activate(p, Process.delay, 0);
+            wakeTakers();
+        }
+    }
+
+    /**
+    * Throws a run-time exception with a specified error
+    * message.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * always.
+    */
+    private static void error(String msg) {
+        throw new RuntimeException(msg);
+    }
+}
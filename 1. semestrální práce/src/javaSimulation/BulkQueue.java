@@ -0,0 +1,195 @@
+/*
+  File: BulkQueue.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+
+/**
+* This class may be used for a queue served in batches, such as
+* skiers boarding a cabin or passengers boarding a bus.
+* <p>
+* Customers are items of class <tt>Link</tt>; they need not be
+* processes. They are added by <tt>put</tt> and wait in a
+* first-come, first-served queue. A server process removes up to
+* a given number of customers at once by <tt>take</tt>, waiting
+* if necessary until enough customers are present or a timeout
+* has elapsed. The server then typically holds for the combined
+* service time of the batch and records the results of each
+* customer, so a batch costs a constant number of process switches,
+* whatever its size.
+* <p>
+* A waiting server is activated by <tt>put</tt> only when enough
+* customers are present for it to go ahead, and these customers are 
+* then promised to it: until it has taken them, no other server 
+* takes them. Servers are served first-come, first-served. 
+* The waiting servers are kept apart from the lists of the simulation, 
+* so a server may be a member of a list while it waits.
+* <p>
+* A stepped process must return from <tt>actions</tt> when
+* <tt>take</tt> returns -1. When it is activated again, it calls
+* <tt>take</tt> with timeout 0 to remove the batch.
+* <p>
+* Example:
+* <pre>
+*     Link[] batch = new Link[6];
+*     int n = passengers.take(batch, 1, 6, 40);
+*     hold(boardingTime(n));
+* </pre>
+*
+* @see javaSimulation.Resource
+* @see javaSimulation.Store
+*/
+
+public class BulkQueue {
+    private final Head queue = new Head();
+    private final Head servers = new Head();
+    private int promised;   // Customers promised to activated servers
+
+    /**
+    * The place of a waiting server. While the server waits, and until
+    * it has taken its batch, the place is its <tt>ITEM</tt>.
+    */
+    private static final class Server extends Link {
+        final BulkQueue owner;
+        final Process process;
+        final int min;
+        boolean activated;
+
+        Server(BulkQueue owner, Process process, int min) {
+            this.owner = owner;
+            this.process = process;
+            this.min = min;
+        }
+    }
+
+    /**
+    * Adds a customer to the queue, and activates the first waiting
+    * server if enough customers not promised to other servers are 
+    * present.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>x</tt> is <tt>null</tt>.
+    */
+    public void put(Link x) {
+        if (x == null)
+            error("put: The customer is null");
+        x.into(queue);
+        activate();
+    }
+
+    /**
+    * Removes up to <tt>max</tt> customers from the front of the queue.
+    * <p>
+    * If fewer than <tt>min</tt> customers are present, the current
+    * process first waits until there are <tt>min</tt> customers,
+    * or until <tt>timeout</tt> has elapsed.
+    *
+    * @param <tt>batch</tt> Receives the customers, in queue order,
+    * from index 0.
+    * @param <tt>min</tt> The number of customers to wait for.
+    * @param <tt>max</tt> The largest number of customers to remove.
+    * @param <tt>timeout</tt> The longest time to wait
+    * (<tt>Double.POSITIVE_INFINITY</tt> for no limit).
+    *
+    * @return The number of customers removed, which is less than
+    * <tt>min</tt> only if the timeout elapsed, or -1 if the current
+    * process is a stepped process that has to wait. Customers 
+    * promised to other servers are not removed.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>max</tt> is not positive or exceeds the length of
+    * <tt>batch</tt>, <tt>min</tt> is not between 0 and <tt>max</tt>,
+    * or <tt>timeout</tt> is negative.
+    */
+    public int take(Link[] batch, int min, int max, double timeout) {
+        if (max <= 0 || max > batch.length || min < 0 || min > max)
+            error("take: Illegal batch size");
+        if (!(timeout >= 0))
+            error("take: Illegal timeout");
+        Process p = Process.current();
+        if (!resumed(p) && queue.cardinal() - promised < min && timeout > 0) {
+            Server s = new Server(this, p, min);
+            s.into(servers);
+            p.ITEM = s;
+            if (timeout == Double.POSITIVE_INFINITY)
+                Process.passivate();
+            else
+                Process.hold(timeout);
+            if (p instanceof StepProcess)
+                return -1;
+            resumed(p);
+        }
+        int n = 0, m = Math.min(max, queue.cardinal() - promised);
+        while (n < m) {
+            Link x = queue.first();
+            x.out();
+            batch[n++] = x;
+        }
+        activate();             // After a timeout, the next server may go ahead
+        return n;
+    }
+
+    /**
+    * Ends the wait of a server that has waited in this queue:
+    * releases the customers promised to it if it was activated 
+    * by <tt>put</tt>, and otherwise (after a timeout) removes it 
+    * from the waiting servers.
+    *
+    * @return <tt>true</tt> if <tt>p</tt> had waited.
+    */
+    private boolean resumed(Process p) {
+        if (!(p.ITEM instanceof Server) || ((Server) p.ITEM).owner != this)
+            return false;
+        Server s = (Server) p.ITEM;
+        p.ITEM = null;
+        if (s.activated)
+            promised -= s.min;
+        else
+            s.out();
+        return true;
+    }
+
+    /**
+    * Activates the waiting servers, first-come, first-served, 
+    * for which enough customers are present, and promises the 
+    * customers to them.
+    */
+    private void activate() {
+        Server s;
+        while ((s = (Server) servers.first()) != null 
+               && queue.cardinal() - promised >= s.min) {
+            s.out();
+            s.activated = true;
+            promised += s.min;
+            Process.reactivate(s.process, Process.delay, 0);
+        }
+    }
+
+    /**
+    * Returns the number of customers in the queue.
+    */
+    public final int size() {
+        return queue.cardinal();
+    }
+
+    /**
+    * Returns the queue of customers.
+    */
+    public final Head queue() {
+        return queue;
+    }
+
+    /**
+    * Throws a run-time exception with a specified error
+    * message.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * always.
+    */
+    private static void error(String msg) {
+        throw new RuntimeException(msg);
+    }
+}
@@ -0,0 +1,179 @@
+/*
+  File: CalendarEventList.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+
+/**
+* An event list represented by a calendar queue (R. Brown, 1988).<p>
+*
+* The processes are distributed in an array of buckets, 
+* each covering an interval of event times of a fixed width, 
+* like the days of a year in a calendar. 
+* Each bucket is a sorted list.
+* The number of buckets is doubled or halved as the number of processes 
+* grows or shrinks, and the bucket width is then re-estimated from the 
+* spacing of the first events.
+* Insertion and removal take amortized O(1) time when event times are 
+* reasonably evenly spread.
+*
+* @see javaSimulation.EventList
+*/
+public class CalendarEventList extends OrderedEventList {
+    private EventBucket[] buckets;
+    private double width = 1;
+    private int size;
+
+    /**
+    * The first process, or <tt>null</tt> if the list is empty.
+    */
+    private Process min;
+
+    public CalendarEventList() {
+        buckets = newBuckets(2);
+    }
+
+    Process first() {
+        return min;
+    }
+
+    Process next(Process p) {
+        return search(p);
+    }
+
+    void gather(double t) {
+        for (Process p = bucket(t).head; p != null && p.EVTIME <= t; p = p.EVSUC)
+            if (p.EVTIME == t)
+                gathered(p);
+    }
+
+    void add(Process p) {
+        bucket(p.EVTIME).addSorted(p);
+        size++;
+        if (min == null || precedes(p, min))
+            min = p;
+        if (size > 2 * buckets.length)
+            resize(2 * buckets.length);
+    }
+
+    void delete(Process p) {
+        p.EVBUCKET.remove(p);
+        size--;
+        if (p == min)
+            min = size > 0 ? search(p) : null;
+        if (size < buckets.length / 2 && buckets.length > 2)
+            resize(buckets.length / 2);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+    * Returns all processes in this list, in no particular order.
+    */
+    private Process[] toArray() {
+        Process[] a = new Process[size];
+        for (int i = 0, j = 0; i < buckets.length; i++)
+            j = buckets[i].copyInto(a, j);
+        return a;
+    }
+
+    /**
+    * Returns the number of the "day" that contains a given event time.
+    */
+    private long day(double t) {
+        return (long) Math.floor(t / width);
+    }
+
+    /**
+    * Returns the bucket for a given event time.
+    */
+    private EventBucket bucket(double t) {
+        return buckets[(int) (day(t) & (buckets.length - 1))];
+    }
+
+    /**
+    * Returns the first process that follows a given process 
+    * (which need not be in the list), or <tt>null</tt> if there is none.
+    * <p>
+    * The buckets are scanned for one year from the bucket of the 
+    * given process. If that fails, the first bucket heads are compared 
+    * directly.
+    */
+    private Process search(Process from) {
+        long d = day(from.EVTIME);
+        for (int k = 0; k < buckets.length; k++, d++) {
+            Process e = after(buckets[(int) (d & (buckets.length - 1))], from);
+            if (e != null && day(e.EVTIME) == d)
+                return e;
+        }
+        Process best = null;
+        for (int i = 0; i < buckets.length; i++) {
+            Process e = after(buckets[i], from);
+            if (e != null && (best == null || precedes(e, best)))
+                best = e;
+        }
+        return best;
+    }
+
+    /**
+    * Returns the first process in a bucket that follows a given process.
+    */
+    private static Process after(EventBucket b, Process from) {
+        Process e = b.head;
+        while (e != null && !precedes(from, e))
+            e = e.EVSUC;
+        return e;
+    }
+
+    /**
+    * Changes the number of buckets, estimates a new bucket width
+    * and redistributes the processes.
+    */
+    private void resize(int n) {
+        double w = estimateWidth();
+        Process[] a = toArray();
+        buckets = newBuckets(n);
+        if (w > 0)
+            width = w;
+        for (int i = 0; i < a.length; i++)
+            bucket(a[i].EVTIME).addSorted(a[i]);
+    }
+
+    /**
+    * Estimates the bucket width as three times the average separation
+    * of the first (at most 25) events, ignoring separations larger than
+    * twice the average.
+    *
+    * @return The estimate, or 0 if no estimate can be made.
+    */
+    private double estimateWidth() {
+        double[] t = new double[Math.min(size, 25)];
+        int n = 0;
+        for (Process p = min; p != null && n < t.length; p = search(p))
+            t[n++] = p.EVTIME;
+        if (n < 2)
+            return 0;
+        double avg = (t[n - 1] - t[0]) / (n - 1), sum = 0;
+        int m = 0;
+        for (int i = 1; i < n; i++) {
+            double d = t[i] - t[i - 1];
+            if (d <= 2 * avg) {
+                sum += d;
+                m++;
+            }
+        }
+        return m > 0 ? 3 * sum / m : 0;
+    }
+
+    private static EventBucket[] newBuckets(int n) {
+        EventBucket[] b = new EventBucket[n];
+        for (int i = 0; i < n; i++)
+            b[i] = new EventBucket();
+        return b;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+  File: Condition.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+
+/**
+* This class may be used for processes that wait until another
+* process signals that a state change they wait for has occurred,
+* such as the arrival of a vehicle.
+* <p>
+* A process waits by <tt>await</tt> in a first-come, first-served
+* queue. <tt>signal</tt> activates the first waiting process only, and
+* <tt>signalAll</tt> activates all of them. A signalled process is
+* activated with delay 0, that is, after the processes already 
+* scheduled at the current time, and it does not test the condition 
+* again. So the signalling process should signal only when the 
+* waiting process can go ahead, which avoids the wake-and-test loops 
+* of <tt>passivate</tt>.
+* <p>
+* A stepped process must return from <tt>actions</tt> after calling
+* <tt>await</tt>; it continues when it is signalled.
+*
+* @see javaSimulation.Resource
+*/
+
+public class Condition {
+    private final Head queue = new Head();
+
+    /**
+    * Causes the current process to wait until it is signalled.
+    */
+    public void await() {
+        Process.wait(queue);
+    }
+
+    /**
+    * Activates the first waiting process, if any.
+    *
+    * @return <tt>true</tt> if a process was activated.
+    */
+    public boolean signal() {
+        Process p = (Process) queue.first();
+        if (p == null)
+            return false;
+        p.out();
+        Process.activate(p, Process.delay, 0);
+        return true;
+    }
+
+    /**
+    * Activates all waiting processes, in queue order.
+    *
+    * @return The number of processes activated.
+    */
+    public int signalAll() {
+        int n = 0;
+        while (signal())
+            n++;
+        return n;
+    }
+
+    /**
+    * Tests if no process is waiting.
+    */
+    public final boolean empty() {
+        return queue.empty();
+    }
+
+    /**
+    * Returns the queue of waiting processes.
+    */
+    public final Head queue() {
+        return queue;
+    }
+}
@@ -11,6 +11,8 @@
 */
 
 package javaSimulation;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.LockSupport;
 
 /**
 * This class may be used for coroutine sequencing in Java.
@@ -38,6 +40,24 @@ package javaSimulation;
 * of the operation <tt>detach()</tt>.
 * This causes the caller to resume its execution from the point where 
 * it last left off.
+* <p>
+* Two backends are available for running coroutines. 
+* With <tt>PLATFORM_THREADS</tt> (the default) each coroutine is run 
+* by a platform thread, and control is handed over by means of 
+* <tt>wait</tt> and <tt>notify</tt>. 
+* With <tt>VIRTUAL_THREADS</tt> each coroutine is run by a virtual thread,
+* and control is handed over by means of <tt>LockSupport.park</tt> 
+* and <tt>LockSupport.unpark</tt>, which makes it possible to create 
+* far more coroutines and to switch between them faster. 
+* The backend is selected by <tt>setBackend</tt>, or by setting 
+* the system property <tt>javaSimulation.coroutines</tt> to 
+* <tt>virtual</tt>.
+* <p>
+* A thread that does not run a coroutine starts a new system of 
+* coroutines when it resumes (or calls) a coroutine, and waits until 
+* the main coroutine of that system has terminated. 
+* Systems started by different threads run concurrently and 
+* independently of each other.
 */
 public abstract class Coroutine {
     /**
@@ -63,7 +83,7 @@ public abstract class Coroutine {
              error("resume terminated coroutine");
          if (next.caller != null)
              error("resume attached coroutine");
-         if (next == current) 
+         if (next == currentCoroutine()) 
              return; 
          while (next.callee != null)
               next = next.callee;
@@ -89,6 +109,7 @@ public abstract class Coroutine {
             error("call terminated coroutine");
         if (next.caller != null)
             error("call attached coroutine");
+        Coroutine current = currentCoroutine();
         if (current != null)
             current.callee = next;
         next.caller = current;
@@ -110,27 +131,85 @@ public abstract class Coroutine {
     * system of coroutines.
     */	
     public static final void detach() {
+        CoSystem s = SYSTEM.get();
+        if (s == null)
+            return;
+        Coroutine current = s.current;
         Coroutine next = current.caller;
         if (next != null) {
             current.caller = next.callee = null;
             next.enter();
         }
-        else if (main != null && current != main)
-            main.enter();
+        else if (s.main != null && current != s.main)
+            s.main.enter();
     }
 
     /**
-    * Returns the currently operating coroutine.
+    * Returns the currently operating coroutine of the system
+    * run by the calling thread.
     */
     public static final Coroutine currentCoroutine() {
-        return current;
+        CoSystem s = SYSTEM.get();
+        return s != null ? s.current : null;
     }
 
     /**
-    * Returns the main coroutine.
+    * Returns the main coroutine of the system run by the calling 
+    * thread.
     */
     public static final Coroutine mainCoroutine() {
-        return main;
+        CoSystem s = SYSTEM.get();
+        return s != null ? s.main : null;
+    }
+
+    /**
+    * Backend code: coroutines are run by platform threads, and control
+    * is handed over by means of <tt>wait</tt> and <tt>notify</tt>.
+    */
+    public static final int PLATFORM_THREADS = 0;
+
+    /**
+    * Backend code: coroutines are run by virtual threads, and control
+    * is handed over by means of <tt>LockSupport.park</tt> and 
+    * <tt>LockSupport.unpark</tt>.
+    * Virtual threads require Java 21 or later. On an older JVM, 
+    * platform threads are used with the same handoff; 
+    * <tt>virtualThreadsSupported</tt> tells which is the case.
+    */
+    public static final int VIRTUAL_THREADS = 1;
+
+    /**
+    * Selects the backend used for running coroutines.
+    * The backend applies to systems of coroutines started 
+    * afterwards; running systems keep their backend.
+    *
+    * @param <tt>b</tt> The backend code, <tt>PLATFORM_THREADS</tt> 
+    * or <tt>VIRTUAL_THREADS</tt>.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>b</tt> is not a backend code.  
+    */
+    public static final void setBackend(int b) {
+        if (b != PLATFORM_THREADS && b != VIRTUAL_THREADS)
+            error("setBackend: unknown backend");
+        backend = b;
+    }
+
+    /**
+    * Returns the code of the backend used for running coroutines.
+    */
+    public static final int backend() {
+        return backend;
+    }
+
+    /**
+    * Returns <tt>true</tt> if the JVM supports virtual threads 
+    * (Java 21 or later), so that the <tt>VIRTUAL_THREADS</tt> backend
+    * runs coroutines by virtual threads, and <tt>false</tt> if it 
+    * runs them by platform threads.
+    */
+    public static final boolean virtualThreadsSupported() {
+        return virtualThreads;
     }
 
     /**
@@ -144,10 +223,28 @@ public abstract class Coroutine {
         throw new RuntimeException(msg);
     }
 
+    /**
+    * This class holds the state of a system of coroutines.
+    */
+    private static final class CoSystem {
+        final int backend;     // The backend used by this system
+        Coroutine main;        // The main coroutine
+        Coroutine current;     // The currently operating coroutine
+        Thread starter;        // The thread that started this system
+
+        CoSystem(int b) {
+            backend = b;
+        }
+    }
+
     /**
     * This class is used to run coroutines.
     *<p>
     * Each coroutine is run by its own thread. 
+    * A coroutine is resumed by setting the permit of its 
+    * <tt>Runner</tt> and notifying the thread. The permit guards 
+    * against spurious wakeups, which would otherwise let two 
+    * coroutines of a system operate at the same time.
     * When a thread is no longer needed by a coroutine, 
     * the thread is inserted into a free list. 
     * Threads from this list may be reused to run new coroutines.   
@@ -155,6 +252,7 @@ public abstract class Coroutine {
     private final class Runner extends Thread {
         Coroutine myCoroutine;  // The target coroutine
         Runner nextFree;        // Next Runner in the free list
+        boolean permit;         // Set when the target coroutine may proceed
 
         Runner(Coroutine c) {
             myCoroutine = c;
@@ -163,16 +261,19 @@ public abstract class Coroutine {
 
         public synchronized void run() {
             while (true) {
+                CoSystem s = myCoroutine.system;
+                SYSTEM.set(s);
                 myCoroutine.body();             // Run my coroutine  
                 if (!myCoroutine.terminated) {
                     myCoroutine.terminated = true;
                     detach();               
                 }
-                if (myCoroutine == Coroutine.main) { 
-                    Coroutine.current = null;  // The main coroutine has exited           
-                    synchronized(Runner.class) {   
-                        Coroutine.main = null;           
-                        Runner.class.notify(); // Start the next coroutine system (if any)
+                SYSTEM.set(null);
+                if (myCoroutine == s.main) { 
+                    s.current = null;          // The main coroutine has exited           
+                    synchronized(s) {   
+                        s.main = null;           
+                        s.notifyAll();         // Let the starter continue
                     }
                     return; 
                 }
@@ -180,29 +281,143 @@ public abstract class Coroutine {
                	    nextFree = firstFree;      // Insert this Runner into the free list
                     firstFree = this;
                 }
-                try {
-                    wait();                    // Wait to be employed again
-                } catch (InterruptedException e) {}
+                await();                       // Wait to be employed again
             }
         }
 
         synchronized void go() {                             
             if (!isAlive())
                 start();	   // Start this thread
-            else 
-                notify();      // Resume the target coroutine
+            else { 
+                permit = true; // Resume the target coroutine
+                notify();
+            }
+        }
+
+        void await() {         // Called by this Runner, holding its lock
+            while (!permit) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {}
+            }
+            permit = false;
+        }
+    }
+
+    /**
+    * This class is used to run coroutines by the 
+    * <tt>VIRTUAL_THREADS</tt> backend.
+    *<p>
+    * Each coroutine is run by its own thread, preferably a virtual one. 
+    * A coroutine is resumed by setting the permit of its 
+    * <tt>Carrier</tt> and unparking the thread. 
+    * When a thread is no longer needed by a coroutine, 
+    * its <tt>Carrier</tt> is inserted into a free list. 
+    * Carriers from this list may be reused to run new coroutines.   
+    */
+    private static final class Carrier implements Runnable {
+        Coroutine myCoroutine;   // The target coroutine
+        Carrier nextFree;        // Next Carrier in the free list
+        volatile boolean permit; // Set when the target coroutine may proceed
+        boolean started;         // Set when the thread has been started
+        final Thread thread = threadFactory.newThread(this);
+
+        Carrier(Coroutine c) {
+            myCoroutine = c;
+        }
+
+        public void run() {
+            while (true) {
+                CoSystem s = myCoroutine.system;
+                SYSTEM.set(s);
+                myCoroutine.body();             // Run my coroutine
+                if (!myCoroutine.terminated) {
+                    myCoroutine.terminated = true;
+                    detach();
+                }
+                SYSTEM.set(null);
+                if (myCoroutine == s.main) {
+                    s.current = null;          // The main coroutine has exited
+                    synchronized(s) {
+                        s.main = null;
+                    }
+                    LockSupport.unpark(s.starter); // Let the starter continue
+                    return;
+                }
+                synchronized(Carrier.class) {
+                    nextFree = firstFreeCarrier; // Insert this Carrier into the free list
+                    firstFreeCarrier = this;
+                }
+                await();                       // Wait to be employed again
+            }
+        }
+
+        void go() {
+            if (!started) {
+                started = true;
+                thread.start();  // Start this thread
+            } else {
+                permit = true;   // Resume the target coroutine
+                LockSupport.unpark(thread);
+            }
+        }
+
+        void await() {
+            while (!permit)
+                LockSupport.park(this);
+            permit = false;
         }
     }
 
+    /**
+    * Returns a factory for virtual threads, if these are supported;
+    * otherwise a factory for platform daemon threads.
+    */
+    private static ThreadFactory newThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            ThreadFactory f = (ThreadFactory) Class.forName("java.lang.Thread$Builder")
+                                                   .getMethod("factory").invoke(builder);
+            virtualThreads = true;
+            return f;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r);
+                    t.setDaemon(true);  // Carriers must die when all user threads have died
+                    return t;
+                }
+            };
+        }
+    }
+
+    /**
+    * Indicates whether carriers are run by virtual threads. 
+    * Set by <tt>newThreadFactory</tt>.
+    */
+    private static boolean virtualThreads;
+
+    /**
+    * The factory used for creating the threads of carriers.
+    */
+    private static final ThreadFactory threadFactory = newThreadFactory();
+
+    /**
+    * The backend used for running coroutines.
+    */
+    private static int backend = 
+        "virtual".equals(System.getProperty("javaSimulation.coroutines")) ?
+        VIRTUAL_THREADS : PLATFORM_THREADS;
+
     /** 
-    /* The curently operating coroutine.
+    * The system of coroutines run by each thread.
     */ 
-    private static Coroutine current;
+    private static final ThreadLocal<CoSystem> SYSTEM = new ThreadLocal<>();
 
     /** 
-    /* The main coroutine.
+    * The system of coroutines that this coroutine belongs to.
     */ 
-    private static Coroutine main;
+    private CoSystem system;
 
     /**
     * The caller of this coroutine.
@@ -230,10 +445,70 @@ public abstract class Coroutine {
     */
     private static Runner firstFree;
 
+    /**
+    * The <tt>Carrier</tt> of this coroutine.
+    */
+    private Carrier myCarrier;
+
+    /**
+    * The first Carrier in the free list.
+    */
+    private static Carrier firstFreeCarrier;
+
     /**
     * Transfers control from the current coroutine to this coroutine.
+    * <p>
+    * If the calling thread does not run a coroutine, a new system
+    * of coroutines is started with this coroutine as its main 
+    * coroutine, and the calling thread waits until the system stops. 
     */	
     private void enter() {
+        CoSystem s = SYSTEM.get();
+        if (s == null) {
+            start();
+            return;
+        }
+        system = s;
+        if (s.backend == VIRTUAL_THREADS)
+            enterCarrier(s);
+        else
+            enterRunner(s);
+    }
+
+    /**
+    * Starts a new system of coroutines with this coroutine as its 
+    * main coroutine, and waits until the system stops.
+    */
+    private void start() {
+        CoSystem s = new CoSystem(backend);
+        system = s;
+        s.main = s.current = this;               // This coroutine is the main coroutine
+        s.starter = Thread.currentThread();
+        if (s.backend == VIRTUAL_THREADS) {
+            getCarrier().go();                   // Start this coroutine
+            while (true) {                       // Wait until the system stops
+                synchronized(s) {
+                    if (s.main == null)
+                        break;
+                }
+                LockSupport.park();
+            }
+            return;
+        }
+        getRunner().go();                        // Start this coroutine
+        synchronized(s) {    
+            try {                   
+                while (s.main != null)
+                    s.wait();                    // Wait until the system stops        
+            } catch (InterruptedException e) {}
+        }
+    }
+
+    /**
+    * Returns the <tt>Runner</tt> of this coroutine.
+    * A <tt>Runner</tt> is allocated, if necessary.
+    */
+    private Runner getRunner() {
         if (myRunner == null) {                  // Get a Runner for this coroutine
         	synchronized(Runner.class) {
                 if (firstFree == null)        
@@ -245,26 +520,59 @@ public abstract class Coroutine {
                 }
             }
         }
-        if (main == null) {                      
-            main = current = this;               // This coroutine is the main coroutine
-            myRunner.go();                       // Start this coroutine
-            synchronized(Runner.class) {    
-                try {                   
-                    while (main != null)
-                        Runner.class.wait();    // Wait until the current coroutine system stops        
-                } catch (InterruptedException e) {}
+        return myRunner;
+    }
+
+    /**
+    * Returns the <tt>Carrier</tt> of this coroutine.
+    * A <tt>Carrier</tt> is allocated, if necessary.
+    */
+    private Carrier getCarrier() {
+        if (myCarrier == null) {                  // Get a Carrier for this coroutine
+            synchronized(Carrier.class) {
+                if (firstFreeCarrier == null)
+                    myCarrier = new Carrier(this); // Create a new Carrier
+                else {
+                    myCarrier = firstFreeCarrier;  // Allocate a Carrier from the free list
+                    firstFreeCarrier = firstFreeCarrier.nextFree;
+                    myCarrier.myCoroutine = this;
+                }
             }
-            return;
         }
-        Coroutine old_current = current; 
+        return myCarrier;
+    }
+
+    /**
+    * Transfers control from the current coroutine to this coroutine
+    * (<tt>PLATFORM_THREADS</tt> backend).
+    *
+    * @param <tt>s</tt> The system of coroutines.
+    */	
+    private void enterRunner(CoSystem s) {
+        Runner runner = getRunner();
+        Coroutine old_current = s.current; 
         synchronized(old_current.myRunner) {           
-            current = this;                       
-            myRunner.go();                       // Resume this coroutine (the new current) 
+            s.current = this;                       
+            runner.go();                         // Resume this coroutine (the new current) 
             if (old_current.terminated)
                 return;
-            try {
-                old_current.myRunner.wait();     // Wait to be resumed
-            } catch(InterruptedException e) {}
+            old_current.myRunner.await();        // Wait to be resumed
         }
     }	
+
+    /**
+    * Transfers control from the current coroutine to this coroutine
+    * (<tt>VIRTUAL_THREADS</tt> backend).
+    *
+    * @param <tt>s</tt> The system of coroutines.
+    */
+    private void enterCarrier(CoSystem s) {
+        Carrier carrier = getCarrier();
+        Coroutine old_current = s.current;
+        s.current = this;
+        carrier.go();                             // Resume this coroutine (the new current)
+        if (old_current.terminated)
+            return;
+        old_current.myCarrier.await();            // Wait to be resumed
+    }
 }
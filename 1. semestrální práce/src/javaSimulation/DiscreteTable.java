@@ -0,0 +1,63 @@
+/*
+  File: DiscreteTable.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+
+/**
+* A precompiled distribution table for drawing by 
+* <tt>Random.discrete</tt>.
+* <p>
+* The table is a copy of the cumulative distribution passed to
+* the constructor. A draw finds its value by binary search in 
+* O(log n) time, instead of the linear scan of 
+* <tt>discrete(double[])</tt>.
+*
+* @see javaSimulation.Random#discrete(DiscreteTable)
+*/
+public final class DiscreteTable {
+    private final double[] a;
+
+    /**
+    * Creates a table from a discrete (cumulative) distribution.
+    *
+    * @param <tt>a</tt> The distribution table, as for 
+    * <tt>Random.discrete(double[])</tt>.
+    *
+    * @exception <tt>RuntimeException</tt> 
+    * if <tt>a</tt> is decreasing somewhere.
+    */
+    public DiscreteTable(double[] a) {
+        for (int i = 1; i < a.length; i++)
+            if (!(a[i] >= a[i-1]))
+                error("DiscreteTable: The table is not increasing");
+        this.a = a.clone();
+    }
+
+    /**
+    * Draws a value: the smallest index <tt>i</tt> such that
+    * <tt>a[i]</tt> > <tt>r</tt>, where <tt>r</tt> is uniformly 
+    * distributed, or <tt>a.length</tt> if there is none.
+    *
+    * @param <tt>random</tt> The source of random numbers.
+    */
+    int draw(java.util.Random random) {
+        double basic = random.nextDouble();
+        int lo = 0, hi = a.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] > basic)
+                hi = mid;
+            else
+                lo = mid + 1;
+        }
+        return lo;
+    }
+
+    private static void error(String msg) {
+        throw new RuntimeException(msg);
+    }
+}
@@ -0,0 +1,104 @@
+/*
+  File: Event.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+
+/**
+* This class may be used for events: actions that take place at an
+* instant of simulated time, such as the departure of a vehicle,
+* and need no life cycle of their own.
+* <p>
+* An event is a stepped process, so it is scheduled on the same
+* clock and in the same event list as any other process, and
+* it may be cancelled by <tt>cancel</tt>. When it becomes current, its
+* <tt>execute</tt> method is called inline by the thread that passed
+* control on, without any coroutine switch.
+* An event that does not suspend itself in <tt>execute</tt> has
+* occurred and is terminated; an event that calls <tt>hold</tt>
+* occurs again after the specified delay, which is useful for
+* periodic events.
+* <p>
+* Events may be mixed freely with ordinary processes, and may
+* activate them. Since <tt>execute</tt> is called by the scheduler,
+* it must not call operations that would block a coroutine
+* process, other than a final <tt>hold</tt>.
+* <p>
+* Example:
+* <pre>
+*     Event.schedule(40, () -&gt; cabin.depart());
+* </pre>
+*
+* @see javaSimulation.StepProcess
+* @see javaSimulation.TimerWheel
+*/
+public abstract class Event extends StepProcess {
+    /**
+    * The action of this event.
+    */
+    protected abstract void execute();
+
+    /**
+    * An indication of whether the last call of <tt>execute</tt> 
+    * activated another process directly, without suspending 
+    * this event, which then remains in the event list.
+    */
+    private boolean executed;
+
+    protected final void actions() {
+        if (executed) {         // The event has occurred; terminate it
+            executed = false;
+            return;
+        }
+        int gen = EVGEN;
+        execute();
+        executed = EVGEN == gen && SCHEDULED && SIM.SQS.first() != this;
+    }
+
+    /**
+    * Schedules an action to take place after a specified delay.
+    *
+    * @param <tt>t</tt> The delay.
+    * @param <tt>action</tt> The action.
+    *
+    * @return The event, which may be cancelled.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>action</tt> is <tt>null</tt>.
+    */
+    public static Event schedule(double t, Runnable action) {
+        Event e = of(action);
+        activate(e, delay, t);
+        return e;
+    }
+
+    /**
+    * Schedules an action to take place at a specified time.
+    *
+    * @param <tt>t</tt> The time.
+    * @param <tt>action</tt> The action.
+    *
+    * @return The event, which may be cancelled.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>action</tt> is <tt>null</tt>.
+    */
+    public static Event scheduleAt(double t, Runnable action) {
+        Event e = of(action);
+        activate(e, at, t);
+        return e;
+    }
+
+    private static Event of(Runnable action) {
+        if (action == null)
+            throw new RuntimeException("schedule: The action is null");
+        return new Event() {
+            protected void execute() {
+                action.run();
+            }
+        };
+    }
+}
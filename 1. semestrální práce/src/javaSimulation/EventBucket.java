@@ -0,0 +1,92 @@
+/*
+  File: EventBucket.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+
+/**
+* A two-way list of scheduled processes, used as a bucket by 
+* calendar and ladder queues. 
+* The list is linked through <tt>EVPRED</tt> and <tt>EVSUC</tt>,
+* and is terminated by <tt>null</tt> in both ends.
+*/
+final class EventBucket {
+    Process head, tail;
+    int size;
+
+    /**
+    * Inserts a process last in this bucket.
+    */
+    void addLast(Process p) {
+        addAfter(p, tail);
+    }
+
+    /**
+    * Inserts a process in event list order, assuming that this
+    * bucket is sorted. The bucket is scanned from its end.
+    */
+    void addSorted(Process p) {
+        Process q = tail;
+        while (q != null && OrderedEventList.precedes(p, q))
+            q = q.EVPRED;
+        addAfter(p, q);
+    }
+
+    /**
+    * Inserts a process after another process in this bucket,
+    * or first if the other process is <tt>null</tt>.
+    */
+    void addAfter(Process p, Process q) {
+        p.EVPRED = q;
+        p.EVSUC = q != null ? q.EVSUC : head;
+        if (p.EVSUC != null)
+            p.EVSUC.EVPRED = p;
+        else
+            tail = p;
+        if (q != null)
+            q.EVSUC = p;
+        else 
+            head = p;
+        p.EVBUCKET = this;
+        size++;
+    }
+
+    /**
+    * Removes a process from this bucket.
+    */
+    void remove(Process p) {
+        if (p.EVPRED != null)
+            p.EVPRED.EVSUC = p.EVSUC;
+        else
+            head = p.EVSUC;
+        if (p.EVSUC != null)
+            p.EVSUC.EVPRED = p.EVPRED;
+        else
+            tail = p.EVPRED;
+        p.EVPRED = p.EVSUC = null;
+        p.EVBUCKET = null;
+        size--;
+    }
+
+    /**
+    * Copies the processes of this bucket into an array.
+    *
+    * @return The index in the array after the last copied process.
+    */
+    int copyInto(Process[] a, int i) {
+        for (Process p = head; p != null; p = p.EVSUC)
+            a[i++] = p;
+        return i;
+    }
+
+    /**
+    * Makes this bucket empty, without updating its processes.
+    */
+    void reset() {
+        head = tail = null;
+        size = 0;
+    }
+}
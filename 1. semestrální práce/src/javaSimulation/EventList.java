@@ -0,0 +1,136 @@
+/*
+  File: EventList.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+
+/**
+* This class is the base class of the implementations of the event list
+* (the sequencing set, SQS) used by class <tt>Process</tt>.<p>
+*
+* The event list holds the scheduled processes ordered by event time.
+* Processes with the same event time are held in the order of their
+* scheduling (first in, first out), unless they are scheduled 
+* with <tt>prior</tt>, or <tt>before</tt> or <tt>after</tt> another process.
+* The first process in the list is the currently active process.
+* <p>
+* The implementation is selected when a simulation is created,
+* by <tt>new Simulation(list)</tt>:
+* <ul>
+* <li><tt>LinkedEventList</tt>, a circular two-way list (the default).
+* Insertion is O(n), which is fast as long as few processes are scheduled.
+* <li><tt>HeapEventList</tt>, a binary heap with O(log n) insertion and removal.
+* <li><tt>ArrayHeapEventList</tt>, a binary heap held in primitive arrays,
+* which keeps sifts away from the process objects, optionally with
+* lazy removal for very large lists with frequent cancellations.
+* <li><tt>CalendarEventList</tt>, a calendar queue with amortized O(1)
+* insertion and removal, provided that event times are reasonably spread.
+* <li><tt>LadderEventList</tt>, a ladder queue with amortized O(1) 
+* insertion and removal, also for skewed event time distributions.
+* </ul>
+* Processes scheduled at the current time, such as processes activated
+* directly, are kept by the simulation in a batch beside the selected
+* list, so they are scheduled in constant time, whatever the
+* implementation.
+*
+* @see javaSimulation.Process
+*/
+public abstract class EventList {
+    /**
+    * Returns the first process in this list, or <tt>null</tt>
+    * if the list is empty.
+    */
+    abstract Process first();
+
+    /**
+    * Returns the process after a scheduled process in this list, 
+    * or <tt>null</tt> if it is the last one.
+    *
+    * @param <tt>p</tt> The process.
+    */
+    abstract Process next(Process p);
+
+    /**
+    * Inserts a process at its event time. 
+    *
+    * @param <tt>p</tt> The process to be inserted.
+    * @param <tt>prior</tt> <tt>true</tt> if the process is to be
+    * inserted before processes with the same event time; 
+    * <tt>false</tt> if after.
+    */
+    abstract void insert(Process p, boolean prior);
+
+    /**
+    * Inserts a process immediately before a scheduled process,
+    * and at the same event time.
+    *
+    * @param <tt>p</tt> The process to be inserted.
+    * @param <tt>q</tt> The scheduled process.
+    */
+    abstract void insertBefore(Process p, Process q);
+
+    /**
+    * Inserts a process immediately after a scheduled process,
+    * and at the same event time.
+    *
+    * @param <tt>p</tt> The process to be inserted.
+    * @param <tt>q</tt> The scheduled process.
+    */
+    abstract void insertAfter(Process p, Process q);
+
+    /**
+    * Removes a scheduled process from this list.
+    *
+    * @param <tt>p</tt> The process to be removed.
+    */
+    abstract void remove(Process p);
+
+    /**
+    * Gives a scheduled process a new event time, and places it
+    * after processes with the same event time.
+    *
+    * @param <tt>p</tt> The process.
+    * @param <tt>t</tt> The new event time.
+    */
+    void reschedule(Process p, double t) {
+        remove(p);
+        p.EVTIME = t;
+        insert(p, false);
+    }
+
+    /**
+    * Removes all processes from this list.
+    */
+    void clear() {
+        Process p;
+        while ((p = first()) != null)
+            remove(p);
+    }
+
+    /**
+    * Returns the number of processes in this list.
+    */
+    public abstract int size();
+
+    /**
+    * Tests if this list is empty.
+    *
+    * @return <tt>true</tt>, if this list is empty; <tt>false</tt> otherwise.
+    */
+    public final boolean empty() {
+        return first() == null;
+    }
+
+    /**
+    * Throws a run-time exception with a specified error message.
+    *
+    * @exception <tt>RuntimeException</tt> 
+    * always. 
+    */
+    static void error(String msg) {
+        throw new RuntimeException(msg);
+    }
+}
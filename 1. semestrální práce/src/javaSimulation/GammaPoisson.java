@@ -0,0 +1,114 @@
+/*
+  File: GammaPoisson.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+
+/**
+* Generators for the gamma and Poisson distributions that take
+* O(1) expected time for any parameter.
+* <p>
+* The gamma generator is the method of Marsaglia and Tsang (2000):
+* a cubed normal deviate is accepted with probability above 95% for
+* every shape, and by a cheap squeeze test in most cases. 
+* Shapes below 1 are boosted by drawing with shape + 1.
+* <p>
+* The Poisson generator uses inversion by sequential search for 
+* means below 10, and otherwise the transformed rejection method 
+* with squeeze (PTRS) of H&ouml;rmann (1993), which accepts about 
+* 90% of the candidates without computing a logarithm.
+* Unlike the multiplication method of <tt>Random.poisson</tt>, 
+* neither method underflows for large means.
+*
+* @see javaSimulation.Random
+*/
+final class GammaPoisson {
+    private GammaPoisson() {}
+
+    /**
+    * The values log(k!) for small k.
+    */
+    private static final double[] LOG_FACTORIAL = new double[256];
+
+    static {
+        for (int k = 2; k < LOG_FACTORIAL.length; k++)
+            LOG_FACTORIAL[k] = LOG_FACTORIAL[k - 1] + Math.log(k);
+    }
+
+    /**
+    * Returns a <tt>double</tt> drawn from the gamma distribution 
+    * with the given shape and scale 1.
+    *
+    * @param <tt>random</tt> The source of random numbers.
+    * @param <tt>shape</tt> The shape (positive).
+    */
+    static double gamma(java.util.Random random, double shape) {
+        if (shape < 1) {
+            double u = 1 - random.nextDouble();     // In (0;1]
+            return gamma(random, shape + 1) * Math.pow(u, 1 / shape);
+        }
+        double d = shape - 1.0 / 3, c = 1 / Math.sqrt(9 * d);
+        while (true) {
+            double x, v;
+            do {
+                x = Ziggurat.normal(random);
+                v = 1 + c * x;
+            } while (v <= 0);
+            v = v * v * v;
+            double u = random.nextDouble(), x2 = x * x;
+            if (u < 1 - 0.0331 * x2 * x2)
+                return d * v;
+            if (Math.log(u) < 0.5 * x2 + d * (1 - v + Math.log(v)))
+                return d * v;
+        }
+    }
+
+    /**
+    * Returns an integer drawn from the Poisson distribution.
+    *
+    * @param <tt>random</tt> The source of random numbers.
+    * @param <tt>mean</tt> The mean (not negative).
+    */
+    static int poisson(java.util.Random random, double mean) {
+        if (mean < 10) {
+            double p = Math.exp(-mean), f = p, u = random.nextDouble();
+            int k = 0;
+            while (u > f && p > 0) {
+                p *= mean / ++k;
+                f += p;
+            }
+            return k;
+        }
+        double slam = Math.sqrt(mean), loglam = Math.log(mean);
+        double b = 0.931 + 2.53 * slam, a = -0.059 + 0.02483 * b;
+        double invalpha = 1.1239 + 1.1328 / (b - 3.4);
+        double vr = 0.9277 - 3.6224 / (b - 2);
+        while (true) {
+            double u = random.nextDouble() - 0.5, v = random.nextDouble();
+            double us = 0.5 - Math.abs(u);
+            double k = Math.floor((2 * a / us + b) * u + mean + 0.43);
+            if (us >= 0.07 && v <= vr)
+                return (int) k;
+            if (k < 0 || (us < 0.013 && v > us))
+                continue;
+            if (Math.log(v) + Math.log(invalpha) - Math.log(a / (us * us) + b) <=
+                -mean + k * loglam - logFactorial(k))
+                return (int) k;
+        }
+    }
+
+    /**
+    * Returns log(k!), from a table for small k and otherwise by 
+    * Stirling's series.
+    */
+    static double logFactorial(double k) {
+        if (k < LOG_FACTORIAL.length)
+            return LOG_FACTORIAL[(int) k];
+        double r = 1 / k, r2 = r * r;
+        return (k + 0.5) * Math.log(k) - k + 0.91893853320467274 +
+               r * (1.0 / 12 - r2 * (1.0 / 360 - r2 / 1260));
+    }
+}
@@ -16,6 +16,17 @@ package javaSimulation;
 *
 * Items in a list are represented by objects of class <tt>Link</tt>, 
 * or more usefully, subclasses of <tt>Link</tt>.
+* <p>
+* The number of items is kept up to date as items enter and leave 
+* the list, and the list records its maximum number of items.
+* On request, the list also measures the time-weighted average number 
+* of items over simulated time, from the time at which it was requested. 
+* The average is not measured by default, since it requires the 
+* simulation clock at each insertion and removal. 
+* It is measured by the clock of the simulation in which it was 
+* requested (or else of the first change), which stops when that 
+* simulation ends, so the average may be read from any thread 
+* after the run.
 *
 * @see javaSimulation.Link 
 * @see javaSimulation.Linkage
@@ -25,6 +36,17 @@ public class Head extends Linkage {
         PRED = SUC = this; 
     }
 
+    /**
+    * Creates an empty list that measures its average number of items
+    * from the current simulation time, if <tt>timed</tt> is 
+    * <tt>true</tt>.
+    */
+    public Head(boolean timed) { 
+        this();
+        if (timed)
+            resetStatistics();
+    }
+
     /**
     * Returns the first item in this list.
     *
@@ -58,10 +80,77 @@ public class Head extends Linkage {
     * @return The number of items.
     */
     public final int cardinal() {
-        int i = 0;
-        for (Link ptr = first(); ptr != null; ptr = ptr.suc())
-            i++;
-        return i;
+        return CARDINAL;
+    }
+
+    /**
+    * Returns the maximum number of items that have been in this list
+    * since it was created or its statistics were reset.
+    *
+    * @return The maximum number of items.
+    */
+    public final int maxCardinal() {
+        return maxCardinal;
+    }
+
+    /**
+    * Returns the time-weighted average number of items in this list
+    * since it was created as a timed list or its statistics were reset,
+    * up to the current time of its simulation, or the time at which 
+    * the simulation ended.
+    *
+    * @return The average number of items. If no simulated time has 
+    * passed, the current number of items is returned.
+    *
+    * @exception <tt>RuntimeException</tt> 
+    * if the average is not measured, or if no simulation has 
+    * used the list since the statistics were started.
+    */
+    public final double meanCardinal() {
+        if (!timed)
+            error("meanCardinal: The average is not measured");
+        if (clock() == null)
+            error("meanCardinal: There is no simulation clock");
+        return meanCardinal(sim.time());
+    }
+
+    /**
+    * Returns the time-weighted average number of items in this list
+    * since it was created as a timed list or its statistics were reset,
+    * up to the specified time.
+    *
+    * @param <tt>endTime</tt> The end of the period.
+    *
+    * @return The average number of items. If no simulated time has 
+    * passed, the current number of items is returned.
+    *
+    * @exception <tt>RuntimeException</tt> 
+    * if the average is not measured, or if <tt>endTime</tt> is 
+    * before the last change of the list.
+    */
+    public final double meanCardinal(double endTime) {
+        if (!timed)
+            error("meanCardinal: The average is not measured");
+        if (endTime < lastTime)
+            error("meanCardinal: The end time is before the last change");
+        if (endTime == statStart)
+            return CARDINAL;
+        return (area + CARDINAL * (endTime - lastTime)) / (endTime - statStart);
+    }
+
+    /**
+    * Resets the maximum and average number of items of this list,
+    * so that they are measured from the current simulation time,
+    * and starts measuring the average if it is not measured already.
+    * This is useful, for example, at the start of a simulation or 
+    * at the end of a warm-up period. 
+    */
+    public final void resetStatistics() {
+        maxCardinal = CARDINAL;
+        area = 0;
+        sim = Simulation.current();
+        statStart = lastTime = sim != null ? sim.time() : 0;
+        timed = true;
     }
 
     /**
@@ -71,4 +160,82 @@ public class Head extends Linkage {
         while (first() != null) 
             first().out(); 
     }
+
+    /**
+    * Updates the statistics when an item has been inserted.
+    */
+    final void added() {
+        if (timed)
+            accumulate();
+        if (++CARDINAL > maxCardinal)
+            maxCardinal = CARDINAL;
+    }
+
+    /**
+    * Updates the statistics when an item has been removed.
+    */
+    final void removed() {
+        if (timed)
+            accumulate();
+        CARDINAL--;
+    }
+
+    private void accumulate() {
+        double now = clock() != null ? sim.time() : 0;
+        area += CARDINAL * (now - lastTime);
+        lastTime = now;
+    }
+
+    /**
+    * Returns the simulation whose clock measures the average, 
+    * which is the current simulation if none has been chosen,
+    * or <tt>null</tt>.
+    */
+    private Simulation clock() {
+        if (sim == null)
+            sim = Simulation.current();
+        return sim;
+    }
+
+    /**
+    * Throws a run-time exception with a specified error message.
+    *
+    * @exception <tt>RuntimeException</tt> 
+    * always. 
+    */
+    private static void error(String msg) {
+        throw new RuntimeException(msg);
+    }
+
+    /**
+    * The number of items in this list.
+    */
+    private int CARDINAL;
+
+    /**
+    * The maximum number of items in this list.
+    */
+    private int maxCardinal;
+
+    /**
+    * The integral of the number of items over simulated time 
+    * up to <tt>lastTime</tt>.
+    */
+    private double area;
+
+    /**
+    * The time of the last change, and the time from which 
+    * statistics are measured.
+    */
+    private double lastTime, statStart;
+
+    /**
+    * Indicates whether the average number of items is measured.
+    */
+    private boolean timed;
+
+    /**
+    * The simulation whose clock measures the average, or <tt>null</tt>.
+    */
+    private Simulation sim;
 }
@@ -0,0 +1,133 @@
+/*
+  File: HeapEventList.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+
+/**
+* An event list represented by a binary heap.<p>
+*
+* Insertion and removal take O(log n) time; the first process is
+* found in constant time. The process after a given process, and 
+* the processes with a given event time, are found by searching 
+* the heap only below the processes that precede them.
+*
+* @see javaSimulation.EventList
+*/
+public class HeapEventList extends OrderedEventList {
+    private Process[] heap = new Process[64];
+    private int size;
+
+    Process first() {
+        return size > 0 ? heap[0] : null;
+    }
+
+    Process next(Process p) {
+        if (p != heap[0])
+            return successor(0, p, null);
+        Process l = size > 1 ? heap[1] : null, r = size > 2 ? heap[2] : null;
+        return r != null && precedes(r, l) ? r : l;
+    }
+
+    void gather(double t) {
+        gather(0, t);
+    }
+
+    void add(Process p) {
+        if (size == heap.length) {
+            Process[] h = new Process[2 * size];
+            System.arraycopy(heap, 0, h, 0, size);
+            heap = h;
+        }
+        siftUp(size++, p);
+    }
+
+    void delete(Process p) {
+        int i = p.EVINDEX;
+        Process last = heap[--size];
+        heap[size] = null;
+        if (last != p) {
+            siftDown(i, last);
+            if (heap[i] == last)
+                siftUp(i, last);
+        }
+        p.EVINDEX = -1;
+    }
+
+    void reschedule(Process p, double t) {
+        int i = p.EVINDEX;
+        p.EVTIME = t;
+        renumber(p);
+        siftDown(i, p);
+        if (heap[i] == p)
+            siftUp(i, p);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+    * Returns the first process in the subheap at position <tt>i</tt> 
+    * that follows <tt>p</tt>, if it precedes <tt>best</tt>; 
+    * otherwise <tt>best</tt>.
+    */
+    private Process successor(int i, Process p, Process best) {
+        if (i >= size)
+            return best;
+        Process q = heap[i];
+        if (best != null && !precedes(q, best))
+            return best;
+        if (precedes(p, q))
+            return q;
+        best = successor(2 * i + 1, p, best);
+        return successor(2 * i + 2, p, best);
+    }
+
+    /**
+    * Collects the processes with event time <tt>t</tt> in the 
+    * subheap at position <tt>i</tt>.
+    */
+    private void gather(int i, double t) {
+        if (i >= size || heap[i].EVTIME > t)
+            return;
+        if (heap[i].EVTIME == t)
+            gathered(heap[i]);
+        gather(2 * i + 1, t);
+        gather(2 * i + 2, t);
+    }
+
+    private void siftUp(int i, Process p) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            Process q = heap[parent];
+            if (!precedes(p, q))
+                break;
+            heap[i] = q;
+            q.EVINDEX = i;
+            i = parent;
+        }
+        heap[i] = p;
+        p.EVINDEX = i;
+    }
+
+    private void siftDown(int i, Process p) {
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1, right = child + 1;
+            Process c = heap[child];
+            if (right < size && precedes(heap[right], c))
+                c = heap[child = right];
+            if (!precedes(c, p))
+                break;
+            heap[i] = c;
+            c.EVINDEX = i;
+            i = child;
+        }
+        heap[i] = p;
+        p.EVINDEX = i;
+    }
+}
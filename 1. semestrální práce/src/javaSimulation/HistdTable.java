@@ -0,0 +1,116 @@
+/*
+  File: HistdTable.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+
+/**
+* A precompiled histogram for drawing by <tt>Random.histd</tt>.
+* <p>
+* The histogram is compiled into an alias table by Vose's method
+* in O(n) time. A draw then takes O(1) time, whatever the number 
+* of values, instead of the two linear scans of 
+* <tt>histd(double[])</tt>.
+* <p>
+* Example:
+* <pre>
+*     HistdTable groupSizes = new HistdTable(new double[] {50, 30, 15, 5});
+*     ...
+*     int size = 1 + random.histd(groupSizes);
+* </pre>
+*
+* @see javaSimulation.Random#histd(HistdTable)
+*/
+public final class HistdTable {
+    /**
+    * The probability of keeping column <tt>i</tt> rather than
+    * taking its alias.
+    */
+    private final double[] prob;
+
+    /**
+    * The alias of each column.
+    */
+    private final int[] alias;
+
+    /**
+    * Creates a table from a histogram.
+    *
+    * @param <tt>a</tt> The histogram: the relative frequencies
+    * of the values 0, 1, ..., <tt>a.length</tt>-1.
+    *
+    * @exception <tt>RuntimeException</tt> 
+    * if <tt>a</tt> is empty, has a negative element, 
+    * or has no positive element.
+    */
+    public HistdTable(double[] a) {
+        int n = a.length;
+        if (n == 0)
+            error("HistdTable: The histogram is empty");
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            if (!(a[i] >= 0))
+                error("HistdTable: Negative frequency");
+            sum += a[i];
+        }
+        if (!(sum > 0) || Double.isInfinite(sum))
+            error("HistdTable: Illegal sum of frequencies");
+        prob = new double[n];
+        alias = new int[n];
+        double[] scaled = new double[n];
+        int[] small = new int[n], large = new int[n];
+        int ns = 0, nl = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = a[i] * n / sum;
+            if (scaled[i] < 1)
+                small[ns++] = i;
+            else
+                large[nl++] = i;
+        }
+        while (ns > 0 && nl > 0) {
+            int s = small[--ns], l = large[--nl];
+            prob[s] = scaled[s];
+            alias[s] = l;
+            scaled[l] = (scaled[l] + scaled[s]) - 1;
+            if (scaled[l] < 1)
+                small[ns++] = l;
+            else
+                large[nl++] = l;
+        }
+        while (nl > 0) {
+            int l = large[--nl];
+            prob[l] = 1;
+            alias[l] = l;
+        }
+        while (ns > 0) {            // Only left by rounding errors
+            int s = small[--ns];
+            prob[s] = 1;
+            alias[s] = s;
+        }
+    }
+
+    /**
+    * Returns the number of values.
+    */
+    public int size() {
+        return prob.length;
+    }
+
+    /**
+    * Draws a value.
+    *
+    * @param <tt>random</tt> The source of random numbers.
+    */
+    int draw(java.util.Random random) {
+        double u = random.nextDouble() * prob.length;
+        int i = (int) u;
+        return u - i < prob[i] ? i : alias[i];
+    }
+
+    private static void error(String msg) {
+        throw new RuntimeException(msg);
+    }
+}
@@ -0,0 +1,237 @@
+/*
+  File: LadderEventList.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+import java.util.Arrays;
+
+/**
+* An event list represented by a ladder queue 
+* (W. T. Tang, R. S. M. Goh and I. L.-J. Thng, 2005).<p>
+*
+* The list consists of three tiers:
+* <ul>
+* <li><i>Top</i>, an unsorted list of processes with event times 
+* beyond those of the rest of the list.
+* <li><i>Rungs</i>, arrays of unsorted buckets of decreasing width. 
+* The first rung is created from the top when needed; 
+* a bucket holding too many processes is split into a new rung. 
+* <li><i>Bottom</i>, a short sorted list holding the first processes.
+* </ul>
+* Processes are only sorted when they reach the bottom, in small 
+* batches, so insertion and removal take amortized O(1) time, 
+* also when event times are unevenly distributed.
+*
+* @see javaSimulation.EventList
+*/
+public class LadderEventList extends OrderedEventList {
+    /**
+    * The largest number of processes sorted into the bottom at a time.
+    */
+    private static final int THRESHOLD = 50;
+
+    /**
+    * The largest number of rungs.
+    */
+    private static final int MAX_RUNGS = 8;
+
+    private final EventBucket top = new EventBucket(), bottom = new EventBucket();
+
+    /**
+    * The smallest and largest event time in the top, and the event time 
+    * above which processes are inserted into the top.
+    */
+    private double topMin, topMax, topStart = Double.NEGATIVE_INFINITY;
+
+    private final EventBucket[][] rungs = new EventBucket[MAX_RUNGS][];
+    private final double[] rungStart = new double[MAX_RUNGS];
+    private final double[] rungWidth = new double[MAX_RUNGS];
+
+    /**
+    * The index of the current bucket of each rung.
+    */
+    private final int[] rungCur = new int[MAX_RUNGS];
+
+    private int rungCount;
+    private int size;
+
+    Process first() {
+        while (bottom.size == 0 && size > 0)
+            advance();
+        return bottom.head;
+    }
+
+    Process next(Process p) {
+        EventBucket b = p.EVBUCKET;
+        if (b == bottom && p.EVSUC != null)
+            return p.EVSUC;
+        Process q = after(b, p);
+        if (q != null || b == top)
+            return q;
+        int r = rungCount - 1, i;
+        if (b == bottom)
+            i = r >= 0 ? rungCur[r] : 0;
+        else {
+            while (rungs[r][i = index(r, p.EVTIME)] != b)
+                r--;
+            i++;
+        }
+        for (; r >= 0; r--) {
+            EventBucket[] rung = rungs[r];
+            for (; i < rung.length; i++)
+                if (rung[i].size > 0)
+                    return after(rung[i], p);
+            if (r > 0)
+                i = rungCur[r - 1];
+        }
+        return after(top, p);
+    }
+
+    void add(Process p) {
+        double t = p.EVTIME;
+        EventBucket b = bucket(t);
+        size++;
+        if (b == top) {
+            if (top.size == 0)
+                topMin = topMax = t;
+            else if (t < topMin)
+                topMin = t;
+            else if (t > topMax)
+                topMax = t;
+            top.addLast(p);
+        } else if (b == bottom)
+            bottom.addSorted(p);
+        else
+            b.addLast(p);
+    }
+
+    void delete(Process p) {
+        p.EVBUCKET.remove(p);
+        if (--size == 0) {
+            while (rungCount > 0)
+                rungs[--rungCount] = null;
+            topStart = Double.NEGATIVE_INFINITY;
+        }
+    }
+
+    void gather(double t) {
+        for (Process p = bucket(t).head; p != null; p = p.EVSUC)
+            if (p.EVTIME == t)
+                gathered(p);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+    * Returns the bucket that holds the processes with a given event 
+    * time: the top, if the time is beyond the rungs, otherwise the 
+    * bucket of the first rung that has not yet passed the time, 
+    * or else the bottom.
+    */
+    private EventBucket bucket(double t) {
+        if (t > topStart)
+            return top;
+        for (int r = 0; r < rungCount; r++) {
+            int i = index(r, t);
+            if (i >= rungCur[r])
+                return rungs[r][i];
+        }
+        return bottom;
+    }
+
+    /**
+    * Returns the first process in a bucket that follows a given 
+    * process, or <tt>null</tt> if there is none.
+    */
+    private static Process after(EventBucket b, Process from) {
+        Process best = null;
+        for (Process e = b.head; e != null; e = e.EVSUC)
+            if (precedes(from, e) && (best == null || precedes(e, best)))
+                best = e;
+        return best;
+    }
+
+    /**
+    * Moves processes towards the bottom, when the bottom is empty.
+    * <p>
+    * If there are no rungs, the top is turned into the first rung.
+    * Otherwise, the next nonempty bucket of the last rung is either 
+    * sorted into the bottom, or, if it is large, split into a new rung.
+    */
+    private void advance() {
+        if (rungCount == 0) {
+            topStart = topMax;
+            if (top.size > THRESHOLD && topMax > topMin)
+                spawn(top, topMin, topMax - topMin);
+            else
+                sortIntoBottom(top);
+            return;
+        }
+        int r = rungCount - 1;
+        EventBucket[] b = rungs[r];
+        int i = rungCur[r];
+        while (i < b.length && b[i].size == 0)
+            i++;
+        if (i == b.length) {
+            rungs[--rungCount] = null;
+            return;
+        }
+        rungCur[r] = i + 1;
+        if (b[i].size > THRESHOLD && rungCount < MAX_RUNGS && 
+            rungWidth[r] / b[i].size > 0)
+            spawn(b[i], rungStart[r] + i * rungWidth[r], rungWidth[r]);
+        else
+            sortIntoBottom(b[i]);
+    }
+
+    /**
+    * Creates a new rung holding the processes of a bucket.
+    *
+    * @param <tt>src</tt> The bucket.
+    * @param <tt>start</tt> The smallest event time of the new rung.
+    * @param <tt>span</tt> The interval of event times covered by the rung.
+    */
+    private void spawn(EventBucket src, double start, double span) {
+        int n = src.size, r = rungCount++;
+        EventBucket[] b = new EventBucket[n + 1];
+        for (int i = 0; i <= n; i++)
+            b[i] = new EventBucket();
+        rungs[r] = b;
+        rungStart[r] = start;
+        rungWidth[r] = span / n;
+        rungCur[r] = 0;
+        Process q;
+        for (Process p = src.head; p != null; p = q) {
+            q = p.EVSUC;
+            b[index(r, p.EVTIME)].addLast(p);
+        }
+        src.reset();
+    }
+
+    /**
+    * Sorts the processes of a bucket into the (empty) bottom.
+    */
+    private void sortIntoBottom(EventBucket src) {
+        Process[] a = new Process[src.size];
+        src.copyInto(a, 0);
+        src.reset();
+        Arrays.sort(a, ORDER);
+        for (int i = 0; i < a.length; i++)
+            bottom.addLast(a[i]);
+    }
+
+    /**
+    * Returns the index of the bucket of rung <tt>r</tt> 
+    * holding event time <tt>t</tt>.
+    * Times outside the rung are mapped to its first or last bucket.
+    */
+    private int index(int r, double t) {
+        double i = Math.floor((t - rungStart[r]) / rungWidth[r]);
+        return i <= 0 ? 0 : i >= rungs[r].length ? rungs[r].length - 1 : (int) i;
+    }
+}
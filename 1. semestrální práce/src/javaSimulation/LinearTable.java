@@ -0,0 +1,73 @@
+/*
+  File: LinearTable.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+
+/**
+* A precompiled distribution function for drawing by 
+* <tt>Random.linear</tt>.
+* <p>
+* The table is a copy of the arrays passed to the constructor,
+* checked once. A draw finds its interval by binary search in 
+* O(log n) time, instead of the linear scan of 
+* <tt>linear(double[], double[])</tt>.
+*
+* @see javaSimulation.Random#linear(LinearTable)
+*/
+public final class LinearTable {
+    private final double[] a, b;
+
+    /**
+    * Creates a table from a distribution function f.
+    *
+    * @param <tt>a</tt> The f(p) values.
+    * @param <tt>b</tt> The p-values.
+    *
+    * @exception <tt>RuntimeException</tt> 
+    * if either <tt>a[0]</tt> != <tt>0</tt>,  
+    * <tt>a[a.length-1]</tt> != <tt>1</tt>,
+    * <tt>a.length</tt> != <tt>b.length</tt>, or
+    * <tt>a</tt> is decreasing somewhere.
+    */
+    public LinearTable(double[] a, double[] b) {
+        if (a.length != b.length)
+            error("LinearTable: the arrays have different length");
+        if (a.length == 0 || a[0] != 0.0 || a[a.length-1] != 1.0)
+            error("LinearTable: Illegal value in first array");
+        for (int i = 1; i < a.length; i++)
+            if (!(a[i] >= a[i-1]))
+                error("LinearTable: The first array is not increasing");
+        this.a = a.clone();
+        this.b = b.clone();
+    }
+
+    /**
+    * Draws a value by linear interpolation in the table.
+    *
+    * @param <tt>random</tt> The source of random numbers.
+    */
+    double draw(java.util.Random random) {
+        double basic = random.nextDouble();
+        int lo = 1, hi = a.length - 1;
+        while (lo < hi) {          // Smallest i >= 1 with a[i] >= basic
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] >= basic)
+                hi = mid;
+            else
+                lo = mid + 1;
+        }
+        int i = lo;
+        double d = a[i] - a[i-1];
+        if (d == 0.0)
+            return b[i-1];
+        return b[i-1] + (b[i]-b[i-1])*(basic-a[i-1])/d; 
+    }
+
+    private static void error(String msg) {
+        throw new RuntimeException(msg);
+    }
+}
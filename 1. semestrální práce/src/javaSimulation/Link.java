@@ -22,6 +22,11 @@ package javaSimulation;
 * @see javaSimulation.Linkage
 */
 public class Link extends Linkage {
+    /**
+    * The list (if any) that this item is currently in.
+    */
+    Head HEAD;
+
     /** 
     * Removes this item from the list (if any) that it is currently in. 
     * If it is not currently in a list, the call has no effect.
@@ -31,6 +36,9 @@ public class Link extends Linkage {
             SUC.PRED = PRED;
             PRED.SUC = SUC;
             SUC = PRED = null;
+            if (HEAD != null)
+                HEAD.removed();
+            HEAD = null;
         }
     }
     
@@ -54,6 +62,9 @@ public class Link extends Linkage {
             PRED = ptr;
             SUC = ptr.SUC;
        	  SUC.PRED = ptr.SUC = this;
+            HEAD = headOf(ptr);
+            if (HEAD != null)
+                HEAD.added();
         }
     }
 
@@ -77,6 +88,9 @@ public class Link extends Linkage {
             SUC = ptr;
             PRED = ptr.PRED;
             PRED.SUC = ptr.PRED = this;
+            HEAD = headOf(ptr);
+            if (HEAD != null)
+                HEAD.added();
         }
     }
     
@@ -94,4 +108,18 @@ public class Link extends Linkage {
     public final void into(Head s) { 
         precede(s); 
     }
+
+    /**
+    * Returns the list that a <tt>Linkage</tt> belongs to, or 
+    * <tt>null</tt> if it is neither a <tt>Head</tt> nor a 
+    * <tt>Link</tt> (a subclass of <tt>Linkage</tt> only), 
+    * in which case the length of the list is not maintained.
+    */
+    private static Head headOf(Linkage ptr) {
+        if (ptr instanceof Head)
+            return (Head) ptr;
+        if (ptr instanceof Link)
+            return ((Link) ptr).HEAD;
+        return null;
+    }
 }
@@ -0,0 +1,101 @@
+/*
+  File: LinkedEventList.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+
+/**
+* An event list represented by a circular two-way list.<p>
+*
+* A process is inserted by scanning the list backwards from its end,
+* which takes time proportional to the number of processes with 
+* a later event time. 
+* This is the original event list of <tt>javaSimulation</tt>.
+*
+* @see javaSimulation.EventList
+*/
+public class LinkedEventList extends EventList {
+    /**
+    * The list head.
+    */
+    private final Process SQS = new StepProcess() {
+        protected void actions() {}
+    };
+
+    private int size;
+
+    public LinkedEventList() {
+        SQS.EVTIME = -1;  SQS.EVPRED = SQS.EVSUC = SQS;
+    }
+
+    Process first() {
+        return SQS.EVSUC != SQS ? SQS.EVSUC : null;
+    }
+
+    Process next(Process p) {
+        return p.EVSUC != SQS ? p.EVSUC : null;
+    }
+
+    void insert(Process p, boolean prior) {
+        double t = p.EVTIME;
+        if (prior && (SQS.EVSUC == SQS || SQS.EVSUC.EVTIME >= t)) {
+            scheduleAfter(p, SQS);
+            return;
+        }
+        Process P;
+        for (P = SQS.EVPRED; P.EVTIME > t; P = P.EVPRED)
+            ;
+        if (prior)
+            while (P.EVTIME == t)
+                P = P.EVPRED;
+        scheduleAfter(p, P);
+    }
+
+    void insertBefore(Process p, Process q) {
+        p.EVTIME = q.EVTIME;
+        scheduleAfter(p, q.EVPRED);
+    }
+
+    void insertAfter(Process p, Process q) {
+        p.EVTIME = q.EVTIME;
+        scheduleAfter(p, q);
+    }
+
+    void remove(Process p) {
+        p.EVPRED.EVSUC = p.EVSUC;
+        p.EVSUC.EVPRED = p.EVPRED;
+        p.EVPRED = p.EVSUC = null;
+        p.SCHEDULED = false;
+        size--;
+    }
+
+    void reschedule(Process p, double t) {
+        p.EVTIME = t;
+        if (p.EVSUC != SQS && p.EVSUC.EVTIME <= t) {
+            remove(p);
+            insert(p, false);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+    * Inserts a process after another process in this list.
+    *
+    * @param <tt>p</tt> The process to be inserted.
+    * @param <tt>q</tt> The process after which <tt>p</tt> is to 
+    * be inserted.
+    */
+    private void scheduleAfter(Process p, Process q) {
+        p.EVPRED = q; 
+        p.EVSUC = q.EVSUC;
+        q.EVSUC = p.EVSUC.EVPRED = p;
+        p.SCHEDULED = true;
+        size++;
+    }
+}
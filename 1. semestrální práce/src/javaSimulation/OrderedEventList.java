@@ -0,0 +1,206 @@
+/*
+  File: OrderedEventList.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+* This class is the base class of event lists that order processes 
+* by the key (<tt>EVTIME</tt>, <tt>EVSEQ</tt>).<p>
+*
+* The sequence number <tt>EVSEQ</tt> breaks ties between processes 
+* with the same event time. 
+* A process inserted after processes with the same event time gets a 
+* number higher than any number in use, and a process inserted 
+* <tt>prior</tt> gets a number lower than any number in use. 
+* A process inserted before or after a specific process gets a number 
+* between the numbers of that process and its neighbour. When no 
+* number is left between them, the processes with their event time 
+* are renumbered in order, so such insertions never run out.
+*/
+abstract class OrderedEventList extends EventList {
+    /**
+    * The lowest and the highest sequence number in use.
+    */
+    private double lowSeq, highSeq;
+
+    /**
+    * The distance between the sequence numbers given to processes 
+    * that are renumbered, which leaves room for 20 insertions at 
+    * the same place before they are renumbered again.
+    */
+    private static final double SPACING = 1 << 20;
+
+    /**
+    * The processes collected by <tt>gather</tt>.
+    */
+    private Process[] run = new Process[8];
+    private int runSize;
+
+    /**
+    * Adds a process with its key already assigned.
+    *
+    * @param <tt>p</tt> The process to be added.
+    */
+    abstract void add(Process p);
+
+    /**
+    * Removes a process from the data structure.
+    *
+    * @param <tt>p</tt> The process to be removed.
+    */
+    abstract void delete(Process p);
+
+    /**
+    * Collects the processes with a specified event time, in any 
+    * order, by calling <tt>gathered</tt> for each of them. 
+    * The processes are found through the data structure, 
+    * without visiting the whole list.
+    *
+    * @param <tt>t</tt> The event time.
+    */
+    abstract void gather(double t);
+
+    /**
+    * Adds a process to the processes collected by <tt>gather</tt>.
+    */
+    final void gathered(Process p) {
+        if (runSize == run.length)
+            run = Arrays.copyOf(run, 2 * runSize);
+        run[runSize++] = p;
+    }
+
+    final void insert(Process p, boolean prior) {
+        p.EVSEQ = prior ? --lowSeq : ++highSeq;
+        add(p);
+        p.SCHEDULED = true;
+    }
+
+    final void insertBefore(Process p, Process q) {
+        p.EVTIME = q.EVTIME;
+        p.EVSEQ = between(q, true);
+        add(p);
+        p.SCHEDULED = true;
+    }
+
+    final void insertAfter(Process p, Process q) {
+        p.EVTIME = q.EVTIME;
+        p.EVSEQ = between(q, false);
+        add(p);
+        p.SCHEDULED = true;
+    }
+
+    final void remove(Process p) {
+        delete(p);
+        p.SCHEDULED = false;
+    }
+
+    void reschedule(Process p, double t) {
+        delete(p);
+        p.EVTIME = t;
+        renumber(p);
+        add(p);
+    }
+
+    /**
+    * Gives a process a sequence number higher than any number in use.
+    */
+    final void renumber(Process p) {
+        p.EVSEQ = ++highSeq;
+    }
+
+    /**
+    * Returns a sequence number between the number of a scheduled 
+    * process and the number of the process with the same event time 
+    * that immediately precedes or follows it.
+    * <p>
+    * If there is no <tt>double</tt> between the two numbers, the 
+    * processes with this event time are first given new numbers, 
+    * in the same order, above all numbers in use.
+    *
+    * @param <tt>q</tt> The scheduled process.
+    * @param <tt>before</tt> <tt>true</tt> for a number before 
+    * <tt>q</tt>, <tt>false</tt> for a number after it.
+    */
+    private double between(Process q, boolean before) {
+        gather(q.EVTIME);
+        Process r = neighbour(q, before);
+        double s = midpoint(q, r, before);
+        if (s == q.EVSEQ || r != null && s == r.EVSEQ) {
+            renumberRun();
+            s = midpoint(q, r, before);
+        }
+        Arrays.fill(run, 0, runSize, null);
+        runSize = 0;
+        if (s < lowSeq)
+            lowSeq = s;
+        if (s > highSeq)
+            highSeq = s;
+        return s;
+    }
+
+    /**
+    * Returns the number halfway between the numbers of <tt>q</tt> 
+    * and its neighbour <tt>r</tt>, or, if there is no neighbour, 
+    * halfway to the number one beyond <tt>q</tt>.
+    */
+    private static double midpoint(Process q, Process r, boolean before) {
+        double lo = before ? (r != null ? r.EVSEQ : q.EVSEQ - 1) : q.EVSEQ;
+        double hi = before ? q.EVSEQ : (r != null ? r.EVSEQ : q.EVSEQ + 1);
+        return lo + (hi - lo) / 2;
+    }
+
+    /**
+    * Returns the collected process that immediately precedes or 
+    * follows a scheduled process, or <tt>null</tt> if there is none.
+    */
+    private Process neighbour(Process q, boolean before) {
+        Process best = null;
+        for (int i = 0; i < runSize; i++) {
+            Process r = run[i];
+            if (r == q)
+                continue;
+            if (before ? r.EVSEQ < q.EVSEQ && (best == null || r.EVSEQ > best.EVSEQ) 
+                       : r.EVSEQ > q.EVSEQ && (best == null || r.EVSEQ < best.EVSEQ))
+                best = r;
+        }
+        return best;
+    }
+
+    /**
+    * Gives the collected processes new sequence numbers, 
+    * <tt>SPACING</tt> apart and in their present order, 
+    * above all numbers in use.
+    */
+    private void renumberRun() {
+        Arrays.sort(run, 0, runSize, ORDER);
+        for (int i = 0; i < runSize; i++) {
+            Process r = run[i];
+            delete(r);
+            r.EVSEQ = highSeq += SPACING;
+            add(r);
+        }
+    }
+
+    /**
+    * Tests if a process precedes another process in the event list order.
+    */
+    static boolean precedes(Process p, Process q) {
+        return p.EVTIME < q.EVTIME || 
+               p.EVTIME == q.EVTIME && p.EVSEQ < q.EVSEQ;
+    }
+
+    /**
+    * The event list order.
+    */
+    static final Comparator<Process> ORDER = new Comparator<Process>() {
+        public int compare(Process p, Process q) {
+            return precedes(p, q) ? -1 : precedes(q, p) ? 1 : 0;
+        }
+    };
+}
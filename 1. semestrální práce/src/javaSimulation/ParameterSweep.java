@@ -0,0 +1,437 @@
+/*
+  File: ParameterSweep.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+import javaSimulation.statistics.Tally;
+
+/**
+* This class may be used for sweeping the parameters of a simulation
+* model.
+* <p>
+* A sweep is described by a model factory, a number of parameters,
+* each with a list of values, and a number of results to be extracted
+* from each run of the model.
+* Each point of the sweep is run in a number of replications,
+* and all runs are executed in parallel, each in its own
+* <tt>Simulation</tt>.
+* Replication <tt>i</tt> uses the same seed at every point
+* (common random numbers), which sharpens the comparison between
+* points.
+* <p>
+* The sweep may be run over the full grid of parameter values by
+* <tt>grid</tt>, or by <tt>minimize</tt>, which uses ternary search
+* over one parameter to find the value that minimizes a cost,
+* for each combination of the other parameters.
+* The points are written as a table by <tt>write</tt>.
+* <p>
+* Example:
+* <pre>
+*     ParameterSweep&lt;Model&gt; sweep =
+*         new ParameterSweep&lt;&gt;((p, seed) -&gt; new Model(p.intValue("n"), seed))
+*             .parameter("n", 10, 20, 30)
+*             .result("wait", m -&gt; m.averageWait)
+*             .replications(20);
+*     sweep.write(sweep.grid(), System.out);
+* </pre>
+*
+* @see javaSimulation.Replications
+*/
+
+public final class ParameterSweep<M extends Process> {
+    /**
+    * Creates the main process of a run from a point and a seed.
+    */
+    public interface Model<M extends Process> {
+        M create(Point p, long seed);
+    }
+
+    /**
+    * This class represents a point of a sweep: a value of each
+    * parameter and, when the point has been run, a summary of
+    * each result.
+    */
+    public static final class Point {
+        private final ParameterSweep<?> sweep;
+        private final double[] values;
+        private Tally[] results;
+
+        Point(ParameterSweep<?> sweep, double[] values) {
+            this.sweep = sweep;
+            this.values = values;
+        }
+
+        /**
+        * Returns the value of the specified parameter.
+        *
+        * @exception <tt>RuntimeException</tt>
+        * if there is no parameter with the specified name.
+        */
+        public double value(String name) {
+            return values[sweep.parameterIndex(name)];
+        }
+
+        /**
+        * Returns the value of the specified parameter, rounded to
+        * an <tt>int</tt>.
+        *
+        * @exception <tt>RuntimeException</tt>
+        * if there is no parameter with the specified name.
+        */
+        public int intValue(String name) {
+            return (int) Math.round(value(name));
+        }
+
+        /**
+        * Returns the summary of the specified result, or
+        * <tt>null</tt> if the point has not been run.
+        *
+        * @exception <tt>RuntimeException</tt>
+        * if there is no result with the specified name.
+        */
+        public Tally result(String name) {
+            int i = sweep.resultNames.indexOf(name);
+            if (i < 0)
+                error("result: Unknown result " + name);
+            return results != null ? results[i] : null;
+        }
+
+        /**
+        * Returns the mean of the specified result.
+        *
+        * @exception <tt>RuntimeException</tt>
+        * if there is no result with the specified name, or the
+        * point has not been run.
+        */
+        public double mean(String name) {
+            Tally s = result(name);
+            if (s == null)
+                error("mean: The point has not been run");
+            return s.mean();
+        }
+    }
+
+    private final Model<? extends M> factory;
+    private final List<String> parameterNames = new ArrayList<>();
+    private final List<double[]> parameterValues = new ArrayList<>();
+    private final List<String> resultNames = new ArrayList<>();
+    private final List<ToDoubleFunction<? super M>> resultFunctions =
+        new ArrayList<>();
+    private int replications = 1;
+    private long seed = 9;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+    * Creates a sweep of the models created by the specified factory.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>factory</tt> is <tt>null</tt>.
+    */
+    public ParameterSweep(Model<? extends M> factory) {
+        if (factory == null)
+            error("ParameterSweep: The factory is null");
+        this.factory = factory;
+    }
+
+    /**
+    * Adds a parameter with the specified values.
+    * If the parameter is already defined, its values are replaced.
+    *
+    * @return This sweep.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>values</tt> is empty.
+    */
+    public ParameterSweep<M> parameter(String name, double... values) {
+        if (values.length == 0)
+            error("parameter: " + name + " has no values");
+        int i = parameterNames.indexOf(name);
+        if (i >= 0)
+            parameterValues.set(i, values.clone());
+        else {
+            parameterNames.add(name);
+            parameterValues.add(values.clone());
+        }
+        return this;
+    }
+
+    /**
+    * Adds a parameter with the values <tt>from</tt>,
+    * <tt>from + step</tt>, ..., up to and including <tt>to</tt>.
+    *
+    * @return This sweep.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>step</tt> is not positive, or <tt>to</tt> is less than
+    * <tt>from</tt>.
+    */
+    public ParameterSweep<M> range(String name, double from, double to,
+                                   double step) {
+        if (step <= 0)
+            error("range: step must be positive");
+        int n = (int) Math.floor((to - from) / step + 1e-9) + 1;
+        double[] values = new double[Math.max(n, 0)];
+        for (int i = 0; i < values.length; i++)
+            values[i] = from + i * step;
+        return parameter(name, values);
+    }
+
+    /**
+    * Adds a result to be extracted from each run.
+    *
+    * @return This sweep.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if the result is already defined.
+    */
+    public ParameterSweep<M> result(String name,
+                                    ToDoubleFunction<? super M> f) {
+        if (resultNames.contains(name))
+            error("result: " + name + " is defined");
+        resultNames.add(name);
+        resultFunctions.add(f);
+        return this;
+    }
+
+    /**
+    * Sets the number of replications of each point (default 1).
+    *
+    * @return This sweep.
+    */
+    public ParameterSweep<M> replications(int n) {
+        if (n <= 0)
+            error("replications: n must be positive");
+        replications = n;
+        return this;
+    }
+
+    /**
+    * Sets the base seed of the replications (default 9).
+    *
+    * @return This sweep.
+    */
+    public ParameterSweep<M> seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+    * Sets the number of threads (default: the number of available
+    * processors).
+    *
+    * @return This sweep.
+    */
+    public ParameterSweep<M> parallelism(int n) {
+        if (n <= 0)
+            error("parallelism: n must be positive");
+        parallelism = n;
+        return this;
+    }
+
+    /**
+    * Runs every point of the full grid of parameter values.
+    *
+    * @return The points, with the last parameter varying fastest.
+    */
+    public List<Point> grid() {
+        List<Point> points = combinations(-1);
+        run(points);
+        return points;
+    }
+
+    /**
+    * For each combination of the values of the other parameters,
+    * finds the value of the specified parameter that minimizes
+    * the cost.
+    * <p>
+    * The values of the parameter are searched by ternary search,
+    * which assumes that the cost, as a function of the position of
+    * the value in the list of values, decreases and then increases.
+    * Only O(log n) of the n values are run for each combination.
+    *
+    * @param <tt>name</tt> The parameter to be searched.
+    * @param <tt>cost</tt> The cost of a point that has been run.
+    *
+    * @return The best point of each combination.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if there is no parameter with the specified name.
+    */
+    public List<Point> minimize(String name, ToDoubleFunction<Point> cost) {
+        int k = parameterIndex(name);
+        double[] values = parameterValues.get(k);
+        List<Point> bases = combinations(k);
+        int n = bases.size();
+        int[] lo = new int[n], hi = new int[n];
+        List<Map<Integer, Point>> runs = new ArrayList<>(n);
+        for (int c = 0; c < n; c++) {
+            hi[c] = values.length - 1;
+            runs.add(new HashMap<>());
+        }
+        while (true) {
+            List<Point> pending = new ArrayList<>();
+            boolean searching = false;
+            for (int c = 0; c < n; c++) {
+                int[] probe = hi[c] - lo[c] > 2 ?
+                              new int[] {lo[c] + (hi[c] - lo[c]) / 3,
+                                         hi[c] - (hi[c] - lo[c]) / 3} :
+                              range(lo[c], hi[c]);
+                searching |= hi[c] - lo[c] > 2;
+                for (int i : probe)
+                    if (!runs.get(c).containsKey(i)) {
+                        Point p = with(bases.get(c), k, values[i]);
+                        runs.get(c).put(i, p);
+                        pending.add(p);
+                    }
+            }
+            run(pending);
+            if (!searching)
+                break;
+            for (int c = 0; c < n; c++) {
+                if (hi[c] - lo[c] <= 2)
+                    continue;
+                int m1 = lo[c] + (hi[c] - lo[c]) / 3;
+                int m2 = hi[c] - (hi[c] - lo[c]) / 3;
+                if (cost.applyAsDouble(runs.get(c).get(m1)) <=
+                    cost.applyAsDouble(runs.get(c).get(m2)))
+                    hi[c] = m2 - 1;
+                else
+                    lo[c] = m1 + 1;
+            }
+        }
+        List<Point> best = new ArrayList<>(n);
+        for (int c = 0; c < n; c++) {
+            Point b = null;
+            for (int i = lo[c]; i <= hi[c]; i++) {
+                Point p = runs.get(c).get(i);
+                if (b == null || cost.applyAsDouble(p) < cost.applyAsDouble(b))
+                    b = p;
+            }
+            best.add(b);
+        }
+        return best;
+    }
+
+    /**
+    * Writes the points as a table with tab-separated columns:
+    * the value of each parameter, followed by the mean and standard
+    * deviation of each result.
+    */
+    public void write(List<Point> points, PrintStream out) {
+        StringBuilder line = new StringBuilder();
+        for (String name : parameterNames)
+            line.append(name).append('\t');
+        for (String name : resultNames)
+            line.append(name).append('\t').append(name).append("_sd\t");
+        out.println(line.toString().trim());
+        for (Point p : points) {
+            line.setLength(0);
+            for (double v : p.values)
+                line.append(format(v)).append('\t');
+            for (int i = 0; i < resultNames.size(); i++) {
+                Tally s = p.results != null ? p.results[i] : null;
+                line.append(s != null ? format(s.mean()) : "-").append('\t')
+                    .append(s != null ? format(s.stdDev()) : "-").append('\t');
+            }
+            out.println(line.toString().trim());
+        }
+    }
+
+    /**
+    * Runs the replications of the specified points in parallel,
+    * by <tt>Replications.runAll</tt>.
+    */
+    private void run(List<Point> points) {
+        if (points.isEmpty())
+            return;
+        List<M> models = 
+            Replications.runAll(0, points.size() * replications, parallelism, 
+                                i -> factory.create(points.get(i / replications), 
+                                                    Replications.seed(seed, i % replications)));
+        int f = 0;
+        for (Point p : points) {
+            p.results = new Tally[resultNames.size()];
+            for (int i = 0; i < p.results.length; i++)
+                p.results[i] = new Tally();
+            for (int r = 0; r < replications; r++) {
+                M model = models.get(f++);
+                for (int i = 0; i < p.results.length; i++)
+                    p.results[i].add(resultFunctions.get(i).applyAsDouble(model));
+            }
+        }
+    }
+
+    /**
+    * Returns the points of the grid of parameter values, where
+    * parameter <tt>skip</tt> (if any) takes only its first value.
+    */
+    private List<Point> combinations(int skip) {
+        List<Point> points = new ArrayList<>();
+        int m = parameterNames.size();
+        int[] index = new int[m];
+        while (true) {
+            double[] v = new double[m];
+            for (int j = 0; j < m; j++)
+                v[j] = parameterValues.get(j)[index[j]];
+            points.add(new Point(this, v));
+            int j = m - 1;
+            while (j >= 0 &&
+                   (j == skip || ++index[j] == parameterValues.get(j).length)) {
+                index[j] = 0;
+                j--;
+            }
+            if (j < 0)
+                return points;
+        }
+    }
+
+    /**
+    * Returns a copy of a point with parameter <tt>k</tt> set to
+    * <tt>v</tt>.
+    */
+    private Point with(Point p, int k, double v) {
+        double[] values = p.values.clone();
+        values[k] = v;
+        return new Point(this, values);
+    }
+
+    private int parameterIndex(String name) {
+        int i = parameterNames.indexOf(name);
+        if (i < 0)
+            error("Unknown parameter " + name);
+        return i;
+    }
+
+    private static int[] range(int lo, int hi) {
+        int[] r = new int[hi - lo + 1];
+        for (int i = 0; i < r.length; i++)
+            r[i] = lo + i;
+        return r;
+    }
+
+    private static String format(double v) {
+        return v == Math.rint(v) && Math.abs(v) < 1e15 ?
+               Long.toString((long) v) : String.format(Locale.ROOT, "%.4f", v);
+    }
+
+    /**
+    * Throws a run-time exception with a specified error
+    * message.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * always.
+    */
+    private static void error(String msg) {
+        throw new RuntimeException(msg);
+    }
+}
@@ -12,7 +12,6 @@
 */
 
 package javaSimulation;
-import java.util.*;
 
 /**
 * This class may be used for process-based discrete event simulation.
@@ -24,95 +23,192 @@ import java.util.*;
 * Since <tt>Process</tt> is a subclass of <tt>Link</tt>, 
 * every process has the capability of being a member of a two-way list.
 * This is useful, for example, when processes must wait in a queue.
+* <p>
+* Processes derived from <tt>StepProcess</tt> are executed by the 
+* step engine: their <tt>actions</tt> are called one phase at a 
+* time by the thread that passes control on, without any coroutine
+* switch.
+* <p>
+* The state of a simulation (its event list, main process, etc.) is
+* held in a <tt>Simulation</tt> object. 
+* The static methods of this class operate on the simulation 
+* of the calling process. 
+* Activating a process from outside any simulation starts a new 
+* simulation with that process as its main process. 
+* Several simulations may run at the same time in different threads.
 *   
+* @see javaSimulation.Simulation
+* @see javaSimulation.StepProcess
 * @see javaSimulation.Link
 * @see javaSimulation.Head
 */
 
 public abstract class Process extends Link {
     private static class TerminateException extends RuntimeException {}
-    private static Set processSet = Collections.synchronizedSet(new HashSet());
-    private static boolean termination;
     
     /**
     * The life cycle of this process. 
     */
     protected abstract void actions();
 
-    private final Coroutine myCoroutine = new Coroutine() {	   	
+    private final Coroutine myCoroutine = this instanceof StepProcess ? null :
+                                          new Coroutine() {	   	
         protected void body() {
-            if (MAIN == null)
-                MAIN = Process.this;
-            processSet.add(Process.this);
-            try {
-            	actions();
-            } catch (TerminateException e) {}
+            Simulation S = SIM;
+            Simulation.CURRENT.set(S);
+            if (S.MAIN == null)
+                S.MAIN = Process.this;
+            S.enter(Process.this);
+            while (true) {
+                try {
+                    actions();
+                } catch (TerminateException e) {
+                } catch (RuntimeException | Error e) {
+                    S.fail(e);       // Ends the simulation
+                }
+                if (POOL == null || SUC != null || S.termination || 
+                    S.failure != null || Process.this == S.MAIN)
+                    break;
+                release();           // Wait in the pool to be activated again
+                transfer(S);
+                if (S.termination || IDLE)
+                    break;
+            }
+            if (IDLE)
+                POOL = null;         // The process has left its pool
             TERMINATED = true;
-            processSet.remove(Process.this);
-            if (Process.this == MAIN) {            
-                termination = true; 
-                while (SQS.SUC != SQS) 
-                   SQS.SUC.cancel();           
-                MAIN.scheduleAfter(SQS);  
-                Object[] pa = processSet.toArray();
-                processSet.clear();
-                for (int i = 0; i < pa.length; i++) 
-                    if (!((Process) pa[i]).TERMINATED)
-                        resume(((Process) pa[i]).myCoroutine);
-                MAIN.cancel();
-                MAIN = null;
+            S.leave(Process.this);
+            if (Process.this == S.MAIN) {            
+                S.termination = true; 
+                S.stopClock();
+                S.SQS.clear();
+                S.SQS.insert(S.MAIN, false);
+                Process p;
+                while ((p = S.leaveFirst()) != null) {
+                    if (p.TERMINATED && !p.IDLE)
+                        continue;
+                    if (p.myCoroutine == null)
+                        p.TERMINATED = true;
+                    else
+                        resume(p.myCoroutine);
+                }
+                S.MAIN.cancel();
+                S.MAIN = null;
                 terminated = true;
-                termination = false;
+                S.termination = false;
              } else { 
-            	if (SUC != null)
+                if (S.failure != null && !S.termination) {
+                    S.termination = true;    // Let the main process end
+                    S.stopClock();
+                    S.SQS.clear();
+                    S.SQS.insert(S.MAIN, false);
+                } else if (SCHEDULED)
               	    cancel();
             	terminated = true;
-            	resume(SQS.SUC.myCoroutine);
+            	transfer(S);
             }
+            Simulation.CURRENT.set(null);
         }
     };
 
     /**
-    * The predecessor of this process in the event list.
+    * The simulation that this process takes part in.
+    * It is set when the process is activated for the first time.
+    */
+    Simulation SIM;
+
+    /**
+    * An indication of whether this process is in the event list.
+    */
+    boolean SCHEDULED;
+
+    /**
+    * The predecessor of this process in a linked event list.
     */	
-    private Process PRED;    
+    Process EVPRED;    
     
     /**
-    * The successor of this process in the event list.
+    * The successor of this process in a linked event list.
     */	
-    private Process SUC;
+    Process EVSUC;
+
+    /**
+    * The bucket holding this process in a calendar or ladder queue.
+    */
+    EventBucket EVBUCKET;
+
+    /**
+    * The position of this process in a heap, or its slot in an
+    * <tt>ArrayHeapEventList</tt>.
+    */
+    int EVINDEX = -1;
     
     /**
     * The event time of this process when scheduled.
     */
-    private double EVTIME;
+    double EVTIME;
+
+    /**
+    * The sequence number used for ordering this process among
+    * processes with the same event time.
+    */
+    double EVSEQ;
     
+    /**
+    * Incremented each time this process is scheduled, rescheduled
+    * or cancelled. 
+    * Used by the step engine and by <tt>Event</tt> to tell whether 
+    * a call of <tt>actions</tt> suspended the process.
+    */
+    int EVGEN;
+
+    /**
+    * An indication of whether a stepped process has started its actions.
+    */
+    private boolean STARTED;
+
+
     /**
     * An indication of whether this process has executed its actions.
     * The value is made publically available through the method 
     * <tt>terminated</tt>.
     */
     private boolean TERMINATED;
-    
+
     /**
-    * The list head of the event list, a circular two-way list.
+    * The predecessor and successor of this process among the
+    * live processes of its simulation.
     */
-    private final static Process SQS;
+    Process LIVEPRED, LIVESUC;
 
-    static { 
-        SQS = new Process() {
-            protected void actions() {}
-        };
-        SQS.EVTIME = -1;  SQS.PRED = SQS.SUC = SQS;
-    }
-    
     /**
-    * The main process.
-    * This is the first activated process in a simulation.
-    * The value is made publically available through the method 
-    * <tt>main</tt>.
+    * An indication of whether this process is among the live 
+    * processes of its simulation.
+    */
+    boolean LIVING;
+
+    /**
+    * The pool that this process belongs to, or <tt>null</tt>.
+    */
+    ProcessPool<?> POOL;
+
+    /**
+    * An indication of whether this process is waiting in its pool.
+    */
+    boolean IDLE;
+
+    /**
+    * The amount requested by this process while it waits in a
+    * <tt>Resource</tt> or <tt>Bin</tt>.
     */
-    private static Process MAIN;
+    int AMOUNT;
+
+    /**
+    * The item handed to this process by a <tt>Store</tt>, or its 
+    * place while it waits as a server of a <tt>BulkQueue</tt>.
+    */
+    Object ITEM;
+    
 
     /**
     * Tests if this process is scheduled.
@@ -121,7 +217,7 @@ public abstract class Process extends Link {
     * in the event list; <tt>false</tt> otherwise.
     */	
     public final boolean idle() { 
-        return SUC == null; 
+        return !SCHEDULED; 
     }
     
     /**
@@ -150,21 +246,35 @@ public abstract class Process extends Link {
     * Returns the next process (if any) in the event list.
     */
     public final Process nextEv() { 
-        return SUC == SQS ? null : SUC; 
+        return SCHEDULED ? SIM.SQS.next(this) : null; 
     }
 
     /**
     * Returns the currently active process.
     */
     public static final Process current() { 
-        return SQS.SUC != SQS ? SQS.SUC : null; 
+        Simulation S = Simulation.CURRENT.get();
+        return S != null ? current(S) : null; 
     } 
+
+    /**
+    * Returns the currently active process of a simulation: the
+    * stepped process whose actions are being executed, if any,
+    * otherwise the first process of the event list.
+    * A stepped process remains current until its actions return, 
+    * even if it has lost its place at the front of the event list
+    * by a direct activation of another process.
+    */
+    private static Process current(Simulation S) {
+        return S.stepping != null ? S.stepping : S.SQS.first();
+    }
     
     /**
     * Returns the current simulation time.
     */
     public static final double time() { 
-        return SQS.SUC != SQS ? SQS.SUC.EVTIME : 0; 
+        Simulation S = Simulation.CURRENT.get();
+        return S != null ? S.time() : 0; 
     }
     
     /**
@@ -173,9 +283,23 @@ public abstract class Process extends Link {
     * in a simulation.
     */
     public static final Process main() { 
-        return MAIN; 
+        Simulation S = Simulation.CURRENT.get();
+        return S != null ? S.MAIN : null; 
     }
-    
+
+    /**
+    * Returns the simulation of the calling process.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if the calling thread takes no part in a simulation.
+    */
+    private static Simulation simulation() {
+        Simulation S = Simulation.CURRENT.get();
+        if (S == null)
+            error("No simulation is running");
+        return S;
+    }
+
     /**
     * Throws a run-time exception with a specified error message.
     *
@@ -196,20 +320,16 @@ public abstract class Process extends Link {
     * @param <tt>t</tt> The length of the period of suspension.
     */
     public static final void hold(double t) {
-        if (SQS.SUC == SQS)
+        Simulation S = simulation();
+        Process Q = current(S);
+        if (Q == null)
            error("Hold: SQS is empty"); 
-        Process Q = SQS.SUC;
-        if (t > 0) 
-            Q.EVTIME += t;
-        t = Q.EVTIME;
-        if (Q.SUC != SQS && Q.SUC.EVTIME <= t) {
-            Q.cancel();
-            Process P = SQS.PRED;
-            while (P.EVTIME > t) 
-                P = P.PRED;
-            Q.scheduleAfter(P);
-            resumeCurrent();
-        }
+        if (!Q.SCHEDULED)
+           error("Hold: The current process is not scheduled");
+        Q.EVGEN++;
+        S.SQS.reschedule(Q, t > 0 ? Q.EVTIME + t : Q.EVTIME);
+        if (S.SQS.first() != Q)
+            resumeCurrent(S);
     }
     
     /**
@@ -222,13 +342,15 @@ public abstract class Process extends Link {
     * if the event list becomes empty.
     */
     public static final void passivate() {
-        if (SQS.SUC == SQS)
+        Simulation S = simulation();
+        Process CURRENT = current(S);
+        if (CURRENT == null)
            error("Passivate: SQS is empty"); 
-        Process CURRENT = SQS.SUC;
-        CURRENT.cancel();
-        if (SQS.SUC == SQS)
+        if (CURRENT.SCHEDULED)
+            CURRENT.cancel();
+        if (S.SQS.empty())
             error("passivate causes SQS to become empty");
-        resumeCurrent();
+        resumeCurrent(S);
     } 
 
     /**
@@ -243,14 +365,26 @@ public abstract class Process extends Link {
     * if the event list becomes empty.
     */		 
     public static final void wait(Head q) {
-        Process CURRENT = SQS.SUC;
-        if (CURRENT == SQS)
+        Simulation S = simulation();
+        Process CURRENT = current(S);
+        if (CURRENT == null)
             error("Wait: SQS is empty"); 
         CURRENT.into(q);
-        CURRENT.cancel();
-        if (SQS.SUC == SQS)
+        if (CURRENT.SCHEDULED)
+            CURRENT.cancel();
+        if (S.SQS.empty())
             error("wait causes SQS to become empty");
-        resumeCurrent();
+        resumeCurrent(S);
+    }
+
+    /**
+    * Completes a call of a synchronization primitive that did not 
+    * have to wait. A stepped process returns from <tt>actions</tt> 
+    * after each such call, so it is continued by <tt>hold(0)</tt>.
+    */
+    static void proceed() {
+        if (current() instanceof StepProcess)
+            hold(0);
     }
 
     /**
@@ -263,6 +397,9 @@ public abstract class Process extends Link {
     * it becomes passive.
     * If it is passive, terminated or <tt>null</tt>,
     * the call has no effect.
+    * <p>
+    * As in SIMULA, <tt>cancel(current())</tt> suspends the caller,
+    * which continues only when it is activated again.
     *
     * @param <tt>p</tt> The process to be cancelled.
     *
@@ -270,15 +407,16 @@ public abstract class Process extends Link {
     * if the event list becomes empty.
     */
     public static final void cancel(Process p) {
-        if (p == null || p.SUC == null)
+        if (p == null || !p.SCHEDULED)
             return;
-        Process CURRENT = SQS.SUC;
+        Simulation S = p.SIM;
+        Process CURRENT = S.SQS.first();
         p.cancel();
-        if (SQS.SUC != CURRENT)
+        if (S.SQS.first() == CURRENT)
             return;
-        if (SQS.SUC == SQS)
+        if (S.SQS.empty())
             error("cancel causes SQS to become empty");
-       	resumeCurrent();
+       	resumeCurrent(S);
     }
 
     /**
@@ -308,15 +446,28 @@ public abstract class Process extends Link {
     */	
     private static final void activat(boolean reac, Process x, int code,
                                       double t, Process y, boolean prio) {
-        if (x == null || x.TERMINATED || (!reac && x.SUC != null))
+        if (x == null || x.TERMINATED || (!reac && x.SCHEDULED))
+            return;
+        Simulation S = Simulation.CURRENT.get();
+        if (S == null) {
+            start(new Simulation(), reac, x, code, t, y, prio);
             return;
-        Process CURRENT = SQS.SUC, P = null;
-        double NOW = time();
+        }
+        if (x.SIM == null)
+            x.SIM = S;
+        else if (x.SIM != S)
+            error("activate: The process belongs to another simulation");
+        if (x.myCoroutine != null && S.MAIN != null && S.MAIN.myCoroutine == null)
+            error("activate: only stepped processes may be activated " +
+                  "when the main process is stepped");
+        EventList SQS = S.SQS;
+        Process CURRENT = SQS.first();
+        double NOW = S.time();
         switch(code) {
         case direct_code:
             if (x == CURRENT)
                 return;
-            t = NOW; P = SQS;
+            t = NOW; prio = true;
             break;
         case delay_code:
             t += NOW;
@@ -329,31 +480,88 @@ public abstract class Process extends Link {
             break;
         case before_code:
         case after_code:
-             if (y == null || y.SUC == null) {
-                 if (x.SUC != null)
+             if (y == null || !y.SCHEDULED) {
+                 if (x.SCHEDULED)
                      x.cancel();
-                 if (SQS.SUC == SQS)
+                 if (SQS.empty())
                      error("reactivate causes SQS to become empty");
                  return;
              }
              if (x == y)
                  return;
-             t = y.EVTIME;
-             P = code == before_code ? y.PRED : y;
         }
-        if (x.SUC != null)
+        if (x.SCHEDULED)
             x.cancel();
-        if (P == null) {
-            for (P = SQS.PRED; P.EVTIME > t; P = P.PRED)
-                 ;
-            if (prio)
-                while (P.EVTIME == t)
-                    P = P.PRED;
+        if (code == before_code)
+            SQS.insertBefore(x, y);
+        else if (code == after_code)
+            SQS.insertAfter(x, y);
+        else {
+            x.EVTIME = t;
+            SQS.insert(x, prio);
+        }
+        if (SQS.first() != CURRENT)
+            resumeCurrent(S);
+    }
+
+    /**
+    * Returns this process to its pool, after it has executed its 
+    * actions. 
+    * The process is marked as terminated until it is acquired again.
+    * A process that is still a member of a list is not returned 
+    * to its pool, since the list still refers to it.
+    */
+    private final void release() {
+        TERMINATED = true;
+        IDLE = true;
+        if (SCHEDULED)
+            cancel();
+        POOL.release(this);
+    }
+
+    /**
+    * Prepares this process for being activated again, after it has 
+    * been acquired from its pool.
+    */
+    final void reuse() {
+        TERMINATED = false;
+        IDLE = false;
+        if (this instanceof StepProcess)
+            ((StepProcess) this).state = 0;
+    }
+
+    /**
+    * Starts a simulation by activating its main process. 
+    * The calling thread takes part in the simulation until 
+    * the main process has terminated. If the actions of a process
+    * threw an exception, which ended the simulation, the exception 
+    * is then rethrown.
+    *
+    * @param <tt>S</tt> The simulation.
+    * The other parameters are those of <tt>activat</tt>.
+    */
+    static final void start(Simulation S, boolean reac, Process x, int code,
+                            double t, Process y, boolean prio) {
+        Simulation.CURRENT.set(S);
+        try {
+            activat(reac, x, code, t, y, prio);
+        } finally {
+            Simulation.CURRENT.set(null);
         }
-        x.EVTIME = t;
-        x.scheduleAfter(P);
-        if (SQS.SUC != CURRENT)
-            resumeCurrent();
+        if (S.failure instanceof RuntimeException)
+            throw (RuntimeException) S.failure;
+        if (S.failure instanceof Error)
+            throw (Error) S.failure;
+    }
+
+    /**
+    * Starts a simulation by a direct activation of its main process. 
+    *
+    * @param <tt>S</tt> The simulation.
+    * @param <tt>x</tt> The main process.
+    */
+    static final void start(Simulation S, Process x) {
+        start(S, false, x, direct_code, 0, null, false);
     }
    
     /*
@@ -641,33 +849,99 @@ public abstract class Process extends Link {
         activat(true, p1, after_code, 0, p2, false); 
     }
     
-    /**
-    * Inserts this process after another process in the event list.
-    *
-    * @param <tt>p</tt> The process after which the process is to 
-    * be inserted.
-    */
-    private final void scheduleAfter(Process p) {
-        PRED = p; 
-        SUC = p.SUC;
-        p.SUC = SUC.PRED = this;
-    }
-    
     /**
     * Removes this process from the event list. 
     */
     private final void cancel() {
-        PRED.SUC = SUC;
-        SUC.PRED = PRED;
-        PRED = SUC = null;
+        EVGEN++;
+        SIM.SQS.remove(this);
     }
     
     /**
     * Resumes the current process. 
+    *
+    * @param <tt>S</tt> The simulation.
     */
-    private final static void resumeCurrent() {
-    	Coroutine.resume(SQS.SUC.myCoroutine);
-        if (termination) 
+    private final static void resumeCurrent(Simulation S) {
+    	transfer(S);
+        if (S.termination) 
             throw new TerminateException();
     } 
+
+    /**
+    * Transfers control to the current process.
+    * <p>
+    * Stepped processes at the front of the event list are executed 
+    * by the calling thread, one phase at a time, until a coroutine 
+    * process becomes current. Its coroutine is then resumed.
+    * If called during the execution of a stepped process, the 
+    * call has no effect; the new current process is taken care of 
+    * when that execution returns.
+    *
+    * @param <tt>S</tt> The simulation.
+    */
+    private final static void transfer(Simulation S) {
+        if (S.stepping != null)
+            return;
+        Process P;
+        while ((P = S.SQS.first()) != null && P.myCoroutine == null)
+            step(S, P);
+        if (P != null)
+            Coroutine.resume(P.myCoroutine);
+    }
+
+    /**
+    * Executes the next phase of a stepped process.
+    * <p>
+    * If the process neither suspended itself nor lost its place
+    * at the front of the event list, it has completed its actions
+    * and is terminated.
+    *
+    * @param <tt>S</tt> The simulation.
+    * @param <tt>p</tt> The process (the current process).
+    */
+    private final static void step(Simulation S, Process p) {
+        if (!p.STARTED) {
+            p.STARTED = true;
+            if (S.MAIN == null)
+                S.MAIN = p;
+            S.enter(p);
+        }
+        int gen = p.EVGEN;
+        S.stepping = p;
+        try {
+            p.actions();
+        } finally {
+            S.stepping = null;
+        }
+        if (p.EVGEN == gen && S.SQS.first() == p)
+            p.terminate();
+    }
+
+    /**
+    * Terminates this stepped process.
+    * <p>
+    * If it is the main process, the simulation ends: the event list 
+    * is emptied and all remaining processes are terminated.
+    */
+    private final void terminate() {
+        Simulation S = SIM;
+        if (this == S.MAIN)
+            S.stopClock();
+        TERMINATED = true;
+        S.leave(this);
+        if (SCHEDULED)
+            cancel();
+        if (POOL != null && SUC == null && this != S.MAIN) {
+            STARTED = false;
+            release();
+        }
+        if (this == S.MAIN) {
+            S.SQS.clear();
+            Process p;
+            while ((p = S.leaveFirst()) != null) 
+                p.TERMINATED = true;
+            S.MAIN = null;
+        }
+    }
 }
@@ -0,0 +1,155 @@
+/*
+  File: ProcessPool.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+import java.util.ArrayList;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+* This class may be used for reusing processes of a given type,
+* instead of creating a new process for each arrival.
+* <p>
+* A process is obtained by <tt>acquire</tt> and activated as usual.
+* When it has executed its actions, it is returned to the pool
+* automatically and is regarded as terminated until it is acquired
+* again. A coroutine process keeps its coroutine (and the thread that
+* runs it) while it waits in the pool, so reusing it costs
+* no allocation.
+* <p>
+* When a process is acquired again, its reset hook is called,
+* and then its <tt>actions</tt> are executed from the start when it
+* is activated. The hook must restore every field that
+* <tt>actions</tt> depends on. The <tt>state</tt> of a stepped process
+* is reset to 0 automatically. A process must not be referenced after
+* it has terminated, since it may then be in use as another arrival.
+* A process that is still a member of a list when it terminates is 
+* not returned to the pool, since the list still refers to it.
+* <p>
+* A pool belongs to one simulation at a time. Processes that
+* were released in a previous simulation are not reused.
+* <p>
+* Example:
+* <pre>
+*     ProcessPool&lt;Customer&gt; customers =
+*         new ProcessPool&lt;&gt;(Customer::new, c -&gt; c.served = false);
+*     ...
+*     activate(customers.acquire());
+* </pre>
+*
+* @see javaSimulation.Process
+*/
+
+public final class ProcessPool<T extends Process> {
+    private final Supplier<? extends T> factory;
+    private final Consumer<? super T> reset;
+    private final ArrayList<T> free = new ArrayList<>();
+    private Simulation sim;
+    private long created, acquired;
+
+    /**
+    * Creates a pool of processes without a reset hook.
+    *
+    * @param <tt>factory</tt> Creates a new process when the pool
+    * is empty.
+    */
+    public ProcessPool(Supplier<? extends T> factory) {
+        this(factory, null);
+    }
+
+    /**
+    * Creates a pool of processes.
+    *
+    * @param <tt>factory</tt> Creates a new process when the pool
+    * is empty.
+    * @param <tt>reset</tt> Called for a process each time it is
+    * reused (may be <tt>null</tt>).
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>factory</tt> is <tt>null</tt>.
+    */
+    public ProcessPool(Supplier<? extends T> factory,
+                       Consumer<? super T> reset) {
+        if (factory == null)
+            error("ProcessPool: The factory is null");
+        this.factory = factory;
+        this.reset = reset;
+    }
+
+    /**
+    * Returns a process that is ready to be activated: a terminated
+    * process from the pool, reset by the hook, or else a new process
+    * created by the factory.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if the factory returns <tt>null</tt>, or a process that has been
+    * activated or belongs to a pool.
+    */
+    public T acquire() {
+        Simulation S = Simulation.current();
+        if (S != sim) {
+            free.clear();
+            sim = S;
+        }
+        acquired++;
+        while (!free.isEmpty()) {
+            T p = free.remove(free.size() - 1);
+            if (p.POOL != this)
+                continue;       // The process has left the pool
+            p.reuse();
+            if (reset != null)
+                reset.accept(p);
+            return p;
+        }
+        T p = factory.get();
+        if (p == null || p.SIM != null || p.POOL != null)
+            error("acquire: The factory returned an unusable process");
+        p.POOL = this;
+        created++;
+        return p;
+    }
+
+    /**
+    * Returns a terminated process to the pool.
+    */
+    @SuppressWarnings("unchecked")
+    void release(Process p) {
+        free.add((T) p);
+    }
+
+    /**
+    * Returns the number of processes waiting in the pool.
+    */
+    public int available() {
+        return free.size();
+    }
+
+    /**
+    * Returns the number of processes created by the factory.
+    */
+    public long created() {
+        return created;
+    }
+
+    /**
+    * Returns the number of calls of <tt>acquire</tt>.
+    */
+    public long acquired() {
+        return acquired;
+    }
+
+    /**
+    * Throws a run-time exception with a specified error
+    * message.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * always.
+    */
+    private static void error(String msg) {
+        throw new RuntimeException(msg);
+    }
+}
@@ -10,17 +10,53 @@
 */
 
 package javaSimulation;
+import java.nio.DoubleBuffer;
 
 /**
 * A class for random drawing.<p>
+*
+* By default the random bits are drawn from the 48-bit linear 
+* congruential generator of <tt>java.util.Random</tt>, which 
+* is synchronized. 
+* A <tt>Random</tt> object created from a <tt>RandomStream</tt> draws
+* its bits from that stream instead, without synchronization. 
+* Such an object can be split into independent streams, for example
+* one for each process or replication:
+* <pre>
+*     Random random = Random.xoshiro256(9);
+*     Random arrivals = random.split(), service = random.split();
+* </pre>
+* <p>
+* Most distributions also have a batch method that fills an array 
+* with values. The batch methods of <tt>uniform</tt>, <tt>negexp</tt>
+* and <tt>normal</tt> give the same values as the same number of 
+* calls of the single-value methods, but draw the uniforms in one 
+* tight loop and transform them in another, which the JIT compiler
+* can unroll and partly vectorize.
+* 
+* @see javaSimulation.RandomStream
 */
 public class Random extends java.util.Random {
+    /**
+    * The stream of random bits, or <tt>null</tt> if the bits
+    * are drawn from <tt>java.util.Random</tt>.
+    */
+    private final RandomStream stream;
+
+    /**
+    * The second of a pair of normal deviates, when drawn
+    * from a stream.
+    */
+    private double nextNextGaussian;
+    private boolean haveNextNextGaussian;
+
     /** 
     * This constructor creates a <tt>Random</tt> object with the current 
     * time as its seed value.
     */
     public Random() { 
         super(); 
+        stream = null;
     }
 
     /**
@@ -29,6 +65,111 @@ public class Random extends java.util.Random {
     */ 
     public Random(long seed) { 
         super(seed); 
+        stream = null;
+    }
+
+    /**
+    * This constructor creates a <tt>Random</tt> object that draws
+    * from the given stream.
+    *
+    * @exception <tt>RuntimeException</tt> 
+    * if <tt>stream</tt> is <tt>null</tt>.
+    */ 
+    public Random(RandomStream stream) { 
+        super(0); 
+        if (stream == null)
+            error("Random: The stream is null");
+        this.stream = stream;
+    }
+
+    /**
+    * Returns a <tt>Random</tt> object that draws from a 
+    * xoshiro256** stream with the given seed value.
+    */ 
+    public static Random xoshiro256(long seed) { 
+        return new Random(RandomStream.xoshiro256(seed));
+    }
+
+    /**
+    * Returns the stream of this object, or <tt>null</tt> if it draws
+    * from <tt>java.util.Random</tt>.
+    */
+    public final RandomStream stream() {
+        return stream;
+    }
+
+    /**
+    * Returns a new <tt>Random</tt> object that draws from a stream
+    * split off the stream of this object.
+    *
+    * @exception <tt>RuntimeException</tt> 
+    * if this object has no stream.
+    */
+    public Random split() {
+        if (stream == null)
+            error("split: The object has no stream");
+        return new Random(stream.split());
+    }
+
+    protected int next(int bits) {
+        if (stream == null)
+            return super.next(bits);
+        return (int) (stream.nextLong() >>> (64 - bits));
+    }
+
+    public long nextLong() {
+        return stream == null ? super.nextLong() : stream.nextLong();
+    }
+
+    public double nextDouble() {
+        if (stream == null)
+            return super.nextDouble();
+        return (stream.nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    public double nextGaussian() {
+        if (stream == null)
+            return super.nextGaussian();
+        if (haveNextNextGaussian) {
+            haveNextNextGaussian = false;
+            return nextNextGaussian;
+        } 
+        double v1, v2, s;
+        do {
+            v1 = 2 * nextDouble() - 1;
+            v2 = 2 * nextDouble() - 1;
+            s = v1 * v1 + v2 * v2;
+        } while (s >= 1 || s == 0);
+        double multiplier = Math.sqrt(-2 * Math.log(s)/s);
+        nextNextGaussian = v2 * multiplier;
+        haveNextNextGaussian = true;
+        return v1 * multiplier;
+    }
+
+    public void setSeed(long seed) {
+        if (stream != null)
+            error("setSeed: The object draws from a stream");
+        super.setSeed(seed);
+    }
+
+    /**
+    * Fills an array with <tt>double</tt>s uniformly distributed 
+    * in [0;1).
+    * The values are the same as those of successive calls of 
+    * <tt>nextDouble</tt>.
+    *
+    * @param <tt>out</tt> The array.
+    */
+    public final void nextDoubles(double[] out) {
+        nextDoubles(out, 0, out.length);
+    }
+
+    private void nextDoubles(double[] out, int from, int to) {
+        if (stream != null)
+            stream.nextDoubles(out, from, to);
+        else
+            for (int i = from; i < to; i++)
+                out[i] = super.nextDouble();
     }
 
     /**
@@ -81,6 +222,59 @@ public class Random extends java.util.Random {
         return a + nextDouble()*(b - a);
     }
    
+    /**
+    * Fills an array with <tt>double</tt>s drawn by 
+    * <tt>uniform(a, b)</tt>.
+    *
+    * @param <tt>a</tt> The minimum value. 
+    * @param <tt>b</tt> The maximum value. 
+    * @param <tt>out</tt> The array.
+    *
+    * @exception <tt>RuntimeException</tt> 
+    * if <tt>b</tt> &lt;= <tt>a</tt>.  
+    */	
+    public final void uniform(double a, double b, double[] out) {
+        if (b <= a)
+            error("uniform: Second parameter is not greater than first parameter");
+        uniform(a, b, out, 0, out.length);
+    }
+
+    /**
+    * Fills the remaining elements of a buffer with <tt>double</tt>s 
+    * drawn by <tt>uniform(a, b)</tt>.
+    * The position of the buffer is advanced to its limit.
+    *
+    * @param <tt>a</tt> The minimum value. 
+    * @param <tt>b</tt> The maximum value. 
+    * @param <tt>out</tt> The buffer.
+    *
+    * @exception <tt>RuntimeException</tt> 
+    * if <tt>b</tt> &lt;= <tt>a</tt>.  
+    */	
+    public final void uniform(double a, double b, DoubleBuffer out) {
+        if (b <= a)
+            error("uniform: Second parameter is not greater than first parameter");
+        if (out.hasArray()) {
+            int from = out.arrayOffset() + out.position();
+            uniform(a, b, out.array(), from, from + out.remaining());
+            out.position(out.limit());
+            return;
+        }
+        double[] block = new double[Math.min(out.remaining(), 1024)];
+        while (out.hasRemaining()) {
+            int n = Math.min(block.length, out.remaining());
+            uniform(a, b, block, 0, n);
+            out.put(block, 0, n);
+        }
+    }
+
+    private void uniform(double a, double b, double[] out, int from, int to) {
+        nextDoubles(out, from, to);
+        double d = b - a;
+        for (int i = from; i < to; i++)
+            out[i] = a + out[i]*d;
+    }
+   
    /**
     * Returns a normally distributed <tt>double</tt>.
     *
@@ -94,6 +288,19 @@ public class Random extends java.util.Random {
         return a + b*nextGaussian();
     }
    
+    /**
+    * Fills an array with <tt>double</tt>s drawn by 
+    * <tt>normal(a, b)</tt>.
+    *
+    * @param <tt>a</tt> The mean. 
+    * @param <tt>b</tt> The standard deviation. 
+    * @param <tt>out</tt> The array.
+    */	 
+    public final void normal(double a, double b, double[] out) {
+        for (int i = 0; i < out.length; i++)
+            out[i] = a + b*nextGaussian();
+    }
+   
    /**
     * Returns a <tt>double</tt> drawn from the negative 
     * exponential distribution.
@@ -112,6 +319,92 @@ public class Random extends java.util.Random {
         return -Math.log(nextDouble())/a;
     }
 
+    /**
+    * Fills an array with <tt>double</tt>s drawn by 
+    * <tt>negexp(a)</tt>.
+    *
+    * @param <tt>a</tt> The reciprocal value of the mean.
+    * @param <tt>out</tt> The array.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if a &lt;= 0.
+    */	 
+    public final void negexp(double a, double[] out) {
+        if (a <= 0)
+            error("negexp: First parameter is lower than zero");
+        nextDoubles(out);
+        for (int i = 0; i < out.length; i++)
+            out[i] = -Math.log(out[i])/a;
+    }
+
+    /**
+    * Returns a normally distributed <tt>double</tt>, drawn by 
+    * the ziggurat method.
+    * <p>
+    * The distribution is the same as that of <tt>normal</tt>, but
+    * the method is faster and needs no cached second value.
+    *
+    * @param <tt>a</tt> The mean. 
+    * @param <tt>b</tt> The standard deviation. 
+    *
+    * @return a normally distributed <tt>double</tt> 
+    * with mean <tt>a</tt> and standard deviation <tt>b</tt>.
+    */	 
+    public final double zigguratNormal(double a, double b) {
+        return a + b*Ziggurat.normal(this);
+    }
+
+    /**
+    * Fills an array with <tt>double</tt>s drawn by 
+    * <tt>zigguratNormal(a, b)</tt>.
+    *
+    * @param <tt>a</tt> The mean. 
+    * @param <tt>b</tt> The standard deviation. 
+    * @param <tt>out</tt> The array.
+    */	 
+    public final void zigguratNormal(double a, double b, double[] out) {
+        for (int i = 0; i < out.length; i++)
+            out[i] = a + b*Ziggurat.normal(this);
+    }
+
+   /**
+    * Returns a <tt>double</tt> drawn from the negative 
+    * exponential distribution by the ziggurat method.
+    * <p>
+    * The distribution is the same as that of <tt>negexp</tt>, but
+    * the method computes no logarithm in about 99% of the draws.
+    *
+    * @param <tt>a</tt> The reciprocal value of the mean.
+    *
+    * @return a <tt>double</tt> drawn from the negative 
+    * exponential distribution with mean <tt>1/a</tt>.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if a &lt;= 0.
+    */	 
+    public final double zigguratNegexp(double a) {
+        if (a <= 0)
+            error("zigguratNegexp: First parameter is lower than zero");
+        return Ziggurat.exponential(this)/a;
+    }
+
+    /**
+    * Fills an array with <tt>double</tt>s drawn by 
+    * <tt>zigguratNegexp(a)</tt>.
+    *
+    * @param <tt>a</tt> The reciprocal value of the mean.
+    * @param <tt>out</tt> The array.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if a &lt;= 0.
+    */	 
+    public final void zigguratNegexp(double a, double[] out) {
+        if (a <= 0)
+            error("zigguratNegexp: First parameter is lower than zero");
+        for (int i = 0; i < out.length; i++)
+            out[i] = Ziggurat.exponential(this)/a;
+    }
+
     /**
     * Returns an integer drawn from the Poisson distribution.
     *
@@ -153,6 +446,123 @@ public class Random extends java.util.Random {
         return -(sum + (b - (ci-1))*Math.log(nextDouble()))/(a*b); 
     }
 
+    /**
+    * Returns an integer drawn from the Poisson distribution, 
+    * in O(1) expected time for any mean.
+    * <p>
+    * Means below 10 are drawn by inversion, larger means by 
+    * the PTRS method of H&ouml;rmann. 
+    * Unlike <tt>poisson</tt>, the method does not underflow for 
+    * large means.
+    *
+    * @param <tt>a</tt> The mean.
+    *
+    * @return an integer drawn from the Poisson distribution
+    * with mean <tt>a</tt>.  
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>a</tt> &lt; <tt>0</tt> or is too large for an 
+    * <tt>int</tt> result.
+    */
+    public final int fastPoisson(double a) {
+        if (!(a >= 0) || a > 1e9)
+            error("fastPoisson: Illegal mean");
+        return GammaPoisson.poisson(this, a);
+    }
+
+    /**
+    * Fills an array with integers drawn from the Poisson distribution
+    * by <tt>fastPoisson</tt>.
+    *
+    * @param <tt>a</tt> The mean.
+    * @param <tt>out</tt> The array.
+    */
+    public final void fastPoisson(double a, int[] out) {
+        if (!(a >= 0) || a > 1e9)
+            error("fastPoisson: Illegal mean");
+        for (int i = 0; i < out.length; i++)
+            out[i] = GammaPoisson.poisson(this, a);
+    }
+
+    /**
+    * Returns a <tt>double</tt> drawn from the gamma distribution,
+    * in O(1) expected time for any shape.
+    * <p>
+    * The method of Marsaglia and Tsang is used.
+    *
+    * @param <tt>a</tt> The shape.
+    * @param <tt>b</tt> The scale.
+    *
+    * @return a <tt>double</tt> drawn from the gamma distribution
+    * with mean <tt>a*b</tt> and variance <tt>a*b*b</tt>.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>a</tt> &lt;= <tt>0</tt> or <tt>b</tt> &lt;= <tt>0</tt>.    
+    */
+    public final double gamma(double a, double b) {
+        if (!(a > 0))
+            error("gamma: First parameter is not greater than zero"); 
+        if (!(b > 0))
+            error("gamma: Second parameter is not greater than zero"); 
+        return b * GammaPoisson.gamma(this, a);
+    }
+
+    /**
+    * Fills an array with <tt>double</tt>s drawn from the gamma 
+    * distribution by <tt>gamma</tt>.
+    *
+    * @param <tt>a</tt> The shape.
+    * @param <tt>b</tt> The scale.
+    * @param <tt>out</tt> The array.
+    */
+    public final void gamma(double a, double b, double[] out) {
+        if (!(a > 0))
+            error("gamma: First parameter is not greater than zero"); 
+        if (!(b > 0))
+            error("gamma: Second parameter is not greater than zero"); 
+        for (int i = 0; i < out.length; i++)
+            out[i] = b * GammaPoisson.gamma(this, a);
+    }
+
+    /**
+    * Returns a <tt>double</tt> drawn from the Erlang distribution,
+    * in O(1) expected time for any shape.
+    * <p>
+    * The value is drawn from the gamma distribution with shape 
+    * <tt>b</tt> and mean <tt>1/a</tt>. For an integer <tt>b</tt> 
+    * the distribution is that of <tt>erlang</tt>, which 
+    * takes O(<tt>b</tt>) time. 
+    * 
+    * @param <tt>a</tt> The reciprocal value of the mean.
+    * @param <tt>b</tt> The shape.
+    *
+    * @return a <tt>double</tt> drawn from the Erlang distribution
+    * with mean <tt>1/a</tt> and standard deviation 
+    * <tt>1/(a*sqrt(b))</tt>.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>a</tt> &lt;= <tt>0</tt> or <tt>b</tt> &lt;= <tt>0</tt>.    
+    */
+    public final double fastErlang(double a, double b) {
+        if (!(a > 0))
+            error("fastErlang: First parameter is not greater than zero"); 
+        return gamma(b, 1/(a*b));
+    }
+
+    /**
+    * Fills an array with <tt>double</tt>s drawn from the Erlang 
+    * distribution by <tt>fastErlang</tt>.
+    *
+    * @param <tt>a</tt> The reciprocal value of the mean.
+    * @param <tt>b</tt> The shape.
+    * @param <tt>out</tt> The array.
+    */
+    public final void fastErlang(double a, double b, double[] out) {
+        if (!(a > 0))
+            error("fastErlang: First parameter is not greater than zero"); 
+        gamma(b, 1/(a*b), out);
+    }
+
     /**
     * Returns an integer from a given discrete distribution.
     * <p
@@ -239,6 +649,50 @@ public class Random extends java.util.Random {
         return i;
     }
     
+    /**
+    * Returns an integer from a precompiled discrete distribution.
+    * <p>
+    * The value is drawn as by <tt>discrete(double[])</tt>, 
+    * but found by binary search.
+    *
+    * @param <tt>t</tt> The distribution table.
+    *
+    * @see javaSimulation.DiscreteTable
+    */
+    public final int discrete(DiscreteTable t) {
+        return t.draw(this);
+    }
+
+    /**
+    * Returns a <tt>double</tt> from a precompiled distribution 
+    * function.
+    * <p>
+    * The value is drawn as by <tt>linear(double[], double[])</tt>, 
+    * but its interval is found by binary search.
+    *
+    * @param <tt>t</tt> The distribution function.
+    *
+    * @see javaSimulation.LinearTable
+    */
+    public final double linear(LinearTable t) {
+        return t.draw(this);
+    }
+
+    /**
+    * Returns a random integer drawn from a precompiled histogram.
+    * <p>
+    * The value has the distribution of <tt>histd(double[])</tt>,
+    * but is drawn in constant time from an alias table.
+    *
+    * @param <tt>t</tt> The histogram.
+    * @return an integer in the range [0;<tt>t.size()</tt>-1].
+    *
+    * @see javaSimulation.HistdTable
+    */
+    public final int histd(HistdTable t) {
+        return t.draw(this);
+    }
+    
     private static void error(String msg) {
         throw new RuntimeException(msg);
     }
@@ -0,0 +1,91 @@
+/*
+  File: RandomStream.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+
+/**
+* This interface is implemented by the generators that may be used
+* as the source of random bits of a <tt>Random</tt> object.
+* <p>
+* A stream is not synchronized. It is meant to be used by one 
+* simulation (or one process) at a time.
+* A stream can be split into a new stream that is statistically 
+* independent of it, so that each replication or process can 
+* draw from its own reproducible stream.
+* <p>
+* Two implementations are provided:
+* <ul>
+* <li><tt>Xoshiro256</tt>, the xoshiro256** generator, with
+* jumps of 2<sup>128</sup> and 2<sup>192</sup> steps.
+* <li><tt>splittable(seed)</tt>, the SplitMix64 generator of 
+* <tt>java.util.SplittableRandom</tt>.
+* </ul>
+*
+* @see javaSimulation.Random
+* @see javaSimulation.Xoshiro256
+*/
+public interface RandomStream {
+    /**
+    * Returns the next 64 random bits of this stream.
+    */
+    long nextLong();
+
+    /**
+    * Fills part of an array with <tt>double</tt>s uniformly 
+    * distributed in [0;1). 
+    * The values are the same as those of successive calls of 
+    * <tt>nextLong</tt>, converted as by <tt>Random.nextDouble</tt>.
+    *
+    * @param <tt>out</tt> The array.
+    * @param <tt>from</tt> The first index to be filled.
+    * @param <tt>to</tt> The index after the last one to be filled.
+    */
+    default void nextDoubles(double[] out, int from, int to) {
+        for (int i = from; i < to; i++)
+            out[i] = (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+    * Returns a new stream that is independent of this stream.
+    * This stream is advanced, so a sequence of splits gives 
+    * reproducible, non-overlapping streams.
+    */
+    RandomStream split();
+
+    /**
+    * Returns a xoshiro256** stream with the given seed value.
+    *
+    * @param <tt>seed</tt> The seed value.
+    */
+    static RandomStream xoshiro256(long seed) {
+        return new Xoshiro256(seed);
+    }
+
+    /**
+    * Returns a stream that draws from a 
+    * <tt>java.util.SplittableRandom</tt> with the given seed value.
+    *
+    * @param <tt>seed</tt> The seed value.
+    */
+    static RandomStream splittable(long seed) {
+        return new SplittableStream(new java.util.SplittableRandom(seed));
+    }
+
+    /**
+    * Returns the antithetic stream of a stream: a stream whose 
+    * bits are the complements of those of the stream. 
+    * A uniform <tt>u</tt> drawn from the stream becomes 
+    * (almost) 1 - <tt>u</tt>.
+    * The antithetic stream draws from <tt>stream</tt>, 
+    * so it should be given a stream that is not used elsewhere.
+    *
+    * @param <tt>stream</tt> The stream.
+    */
+    static RandomStream antithetic(RandomStream stream) {
+        return new AntitheticStream(stream);
+    }
+}
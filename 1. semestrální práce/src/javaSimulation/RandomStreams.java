@@ -0,0 +1,127 @@
+/*
+  File: RandomStreams.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+* This class provides named random streams, one for each source of
+* randomness in a model (arrivals, boarding, service, ...).
+* <p>
+* Each stream is a <tt>Random</tt> object that draws from its own 
+* xoshiro256** stream. Its seed is derived from the seed of this 
+* object and the name of the stream only, so it does not depend on
+* which other streams are used or in which order they are created.
+* <p>
+* When two configurations of a model are run with the same seed, 
+* every source of randomness then sees the same numbers in both 
+* runs (common random numbers), even if the configurations draw
+* different numbers of values from other sources. 
+* This makes the difference between the runs much less noisy than
+* with one shared <tt>Random</tt>.
+* <p>
+* <tt>antithetic()</tt> returns the streams of the antithetic run:
+* each uniform <tt>u</tt> becomes 1 - <tt>u</tt>.
+* The mean of a run and its antithetic partner has a lower 
+* variance than the mean of two independent runs, to the extent that
+* the results are monotone in the uniforms. This works best with 
+* methods that draw by inversion, such as <tt>uniform</tt> and 
+* <tt>negexp</tt>.
+* <p>
+* Example:
+* <pre>
+*     Model(RandomStreams streams) {
+*         arrivals = streams.stream("arrivals");
+*         service = streams.stream("service");
+*     }
+* </pre>
+*
+* @see javaSimulation.Random
+* @see javaSimulation.Replications#runAntithetic
+*/
+public final class RandomStreams {
+    private final long seed;
+    private final boolean antithetic;
+    private final Map<String, Random> streams = new HashMap<>();
+
+    /**
+    * Creates the streams with the given seed value.
+    *
+    * @param <tt>seed</tt> The seed value.
+    */
+    public RandomStreams(long seed) {
+        this(seed, false);
+    }
+
+    /**
+    * Creates the streams with the given seed value.
+    *
+    * @param <tt>seed</tt> The seed value.
+    * @param <tt>antithetic</tt> <tt>true</tt> if the streams are
+    * to be antithetic.
+    */
+    public RandomStreams(long seed, boolean antithetic) {
+        this.seed = seed;
+        this.antithetic = antithetic;
+    }
+
+    /**
+    * Returns the stream with the given name. 
+    * The same object is returned each time the stream is requested.
+    *
+    * @param <tt>name</tt> The name.
+    */
+    public Random stream(String name) {
+        Random r = streams.get(name);
+        if (r == null) {
+            RandomStream s = RandomStream.xoshiro256(seed(name));
+            r = new Random(antithetic ? RandomStream.antithetic(s) : s);
+            streams.put(name, r);
+        }
+        return r;
+    }
+
+    /**
+    * Returns new streams with the same seed value, which are 
+    * antithetic if these are not, and vice versa.
+    */
+    public RandomStreams antithetic() {
+        return new RandomStreams(seed, !antithetic);
+    }
+
+    /**
+    * Tests if these streams are antithetic.
+    */
+    public boolean isAntithetic() {
+        return antithetic;
+    }
+
+    /**
+    * Returns the seed value.
+    */
+    public long seed() {
+        return seed;
+    }
+
+    /**
+    * Returns the seed of the stream with the given name:
+    * a 64-bit FNV-1a hash of the name, mixed with the seed of 
+    * these streams.
+    */
+    private long seed(String name) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < name.length(); i++) {
+            h ^= name.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        long z = seed ^ h;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,229 @@
+/*
+  File: Replications.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.LongFunction;
+import java.util.function.ToDoubleFunction;
+import javaSimulation.statistics.Tally;
+
+/**
+* This class may be used for running independent replications
+* of a simulation model in parallel.
+* <p>
+* Each replication is a main process created by a factory from
+* a seed. The replication is run in its own <tt>Simulation</tt> by
+* a thread from a pool, so replications do not share any simulation
+* state. The seeds are derived from a base seed and the number
+* of the replication, so the results of a run do not depend on
+* the number of threads or on the order in which the replications
+* are executed.
+* <p>
+* Replications may also be run in antithetic pairs by 
+* <tt>runAntithetic</tt>, for models that draw from 
+* <tt>RandomStreams</tt>.
+* <p>
+* Example:
+* <pre>
+*     List&lt;Model&gt; runs = Replications.run(100, 9, seed -&gt; new Model(seed));
+*     Tally s =
+*         Replications.summarize(runs, m -&gt; m.averageWait);
+* </pre>
+*
+* @see javaSimulation.Simulation
+* @see javaSimulation.RandomStreams
+*/
+
+public final class Replications {
+    private Replications() {}
+
+    /**
+    * Runs <tt>n</tt> replications in parallel, using one thread
+    * for each available processor.
+    *
+    * @param <tt>n</tt> The number of replications.
+    * @param <tt>seed</tt> The base seed.
+    * @param <tt>factory</tt> Creates the main process of a replication
+    * from its seed.
+    *
+    * @return The main processes of the replications, in the order
+    * of their numbers.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if a replication fails.
+    */
+    public static <T extends Process> List<T> run(int n, long seed,
+                                                  LongFunction<? extends T> factory) {
+        return run(n, seed, factory, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+    * Runs <tt>n</tt> replications in parallel, using the specified
+    * number of threads.
+    *
+    * @param <tt>n</tt> The number of replications.
+    * @param <tt>seed</tt> The base seed.
+    * @param <tt>factory</tt> Creates the main process of a replication
+    * from its seed.
+    * @param <tt>parallelism</tt> The number of threads.
+    *
+    * @return The main processes of the replications, in the order
+    * of their numbers.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>n</tt> is negative, <tt>parallelism</tt> is not positive,
+    * or a replication fails.
+    */
+    public static <T extends Process> List<T> run(int n, long seed,
+                                                  LongFunction<? extends T> factory,
+                                                  int parallelism) {
+        return runAll(0, n, parallelism, i -> factory.apply(seed(seed, i)));
+    }
+
+    /**
+    * Runs <tt>pairs</tt> pairs of antithetic replications in parallel,
+    * using one thread for each available processor.
+    * <p>
+    * The replications of pair <tt>i</tt> are created from 
+    * <tt>new RandomStreams(seed(seed, i))</tt> and its antithetic
+    * streams. The results should be summarized by 
+    * <tt>summarizePairs</tt>.
+    *
+    * @param <tt>pairs</tt> The number of pairs.
+    * @param <tt>seed</tt> The base seed.
+    * @param <tt>factory</tt> Creates the main process of a replication
+    * from its streams.
+    *
+    * @return The main processes of the replications: the two 
+    * replications of pair <tt>i</tt> are at positions <tt>2i</tt> 
+    * and <tt>2i+1</tt>.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>pairs</tt> is negative, or a replication fails.
+    */
+    public static <T extends Process> List<T> runAntithetic(int pairs, long seed,
+                                                            Function<RandomStreams, ? extends T> factory) {
+        if (pairs < 0)
+            error("runAntithetic: Illegal number of pairs");
+        return runAll(0, 2 * pairs, Runtime.getRuntime().availableProcessors(), i -> {
+            RandomStreams streams = new RandomStreams(seed(seed, i / 2));
+            return factory.apply(i % 2 == 0 ? streams : streams.antithetic());
+        });
+    }
+
+    /**
+    * Runs the replications numbered <tt>from</tt> up to, but not 
+    * including, <tt>to</tt> in parallel.
+    *
+    * @param <tt>factory</tt> Creates the main process of a replication
+    * from its number.
+    */
+    static <T extends Process> List<T> runAll(int from, int to, int parallelism, 
+                                              IntFunction<? extends T> factory) {
+        int n = to - from;
+        if (from < 0 || n < 0 || parallelism <= 0)
+            error("run: Illegal number of replications or threads");
+        ExecutorService pool =
+            Executors.newFixedThreadPool(Math.min(parallelism, Math.max(n, 1)));
+        try {
+            List<Future<T>> futures = new ArrayList<>(n);
+            for (int i = from; i < to; i++) {
+                final int r = i;
+                futures.add(pool.submit(() -> {
+                    T model = factory.apply(r);
+                    new Simulation().run(model);
+                    return model;
+                }));
+            }
+            List<T> result = new ArrayList<>(n);
+            for (Future<T> f : futures)
+                result.add(f.get());
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("run: Interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            throw new RuntimeException("run: A replication failed", cause);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+    * Returns the seed of a replication.
+    * The seed is computed by the SplitMix64 mixing function,
+    * which spreads consecutive replication numbers over
+    * the full range of seeds.
+    *
+    * @param <tt>base</tt> The base seed.
+    * @param <tt>i</tt> The number of the replication.
+    */
+    public static long seed(long base, int i) {
+        long z = base + (i + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+    * Summarizes a result of the replications.
+    *
+    * @param <tt>runs</tt> The replications.
+    * @param <tt>result</tt> Extracts the result from a replication.
+    */
+    public static <T> Tally summarize(List<T> runs,
+                                      ToDoubleFunction<? super T> result) {
+        Tally s = new Tally();
+        for (T r : runs)
+            s.add(result.applyAsDouble(r));
+        return s;
+    }
+
+    /**
+    * Summarizes a result of pairs of antithetic replications,
+    * as returned by <tt>runAntithetic</tt>.
+    * Each observation is the mean of the result over a pair,
+    * so the summary gives a valid confidence interval.
+    *
+    * @param <tt>runs</tt> The replications.
+    * @param <tt>result</tt> Extracts the result from a replication.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if the number of replications is odd.
+    */
+    public static <T> Tally summarizePairs(List<T> runs,
+                                           ToDoubleFunction<? super T> result) {
+        if (runs.size() % 2 != 0)
+            error("summarizePairs: Odd number of replications");
+        Tally s = new Tally();
+        for (int i = 0; i < runs.size(); i += 2)
+            s.add((result.applyAsDouble(runs.get(i)) + 
+                   result.applyAsDouble(runs.get(i + 1))) / 2);
+        return s;
+    }
+
+    /**
+    * Throws a run-time exception with a specified error
+    * message.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * always.
+    */
+    private static void error(String msg) {
+        throw new RuntimeException(msg);
+    }
+}
@@ -0,0 +1,153 @@
+/*
+  File: Resource.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+
+/**
+* This class may be used for a resource with a fixed number of units,
+* such as servers or boarding gates, that processes request and
+* release.
+* <p>
+* A process that requests more units than are available waits
+* in a first-come, first-served queue. When units are released,
+* they are handed over directly to the waiting processes that can
+* go ahead, in queue order, and only these processes are activated.
+* A waiting process therefore never has to test again whether it may
+* proceed. It is activated at the current time, after the processes
+* with the same event time, so the releasing process continues 
+* without interruption.
+* <p>
+* The queue is an ordinary <tt>Head</tt>, so its length statistics
+* are available through <tt>queue()</tt>.
+* A stepped process must return from <tt>actions</tt> after calling
+* <tt>request</tt>; it continues when it has been granted the units.
+* <p>
+* Example:
+* <pre>
+*     Resource servers = new Resource(3);
+*     ...
+*     servers.request();
+*     hold(serviceTime);
+*     servers.release();
+* </pre>
+*
+* @see javaSimulation.Bin
+* @see javaSimulation.Store
+* @see javaSimulation.Condition
+*/
+
+public class Resource {
+    private final int capacity;
+    private int available;
+    private final Head queue = new Head();
+
+    /**
+    * Creates a resource with the specified number of units,
+    * all of which are available.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>capacity</tt> is not positive.
+    */
+    public Resource(int capacity) {
+        if (capacity <= 0)
+            error("Resource: capacity must be positive");
+        this.capacity = available = capacity;
+    }
+
+    /**
+    * Requests one unit for the current process.
+    */
+    public void request() {
+        request(1);
+    }
+
+    /**
+    * Requests <tt>n</tt> units for the current process.
+    * The process waits if other processes are waiting, or if fewer
+    * than <tt>n</tt> units are available.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>n</tt> is not positive or exceeds the capacity.
+    */
+    public void request(int n) {
+        if (n <= 0 || n > capacity)
+            error("request: Illegal number of units");
+        if (queue.empty() && n <= available) {
+            available -= n;
+            Process.proceed();
+            return;
+        }
+        Process.current().AMOUNT = n;
+        Process.wait(queue);
+    }
+
+    /**
+    * Releases one unit.
+    */
+    public void release() {
+        release(1);
+    }
+
+    /**
+    * Releases <tt>n</tt> units, and hands them over to the waiting
+    * processes that can go ahead.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>n</tt> is not positive, or more units would be available
+    * than the capacity.
+    */
+    public void release(int n) {
+        if (n <= 0 || n > capacity - available)
+            error("release: Illegal number of units");
+        available += n;
+        Process p;
+        while ((p = (Process) queue.first()) != null && p.AMOUNT <= available) {
+            available -= p.AMOUNT;
+            p.out();
+            Process.activate(p, Process.delay, 0);
+        }
+    }
+
+    /**
+    * Returns the number of units.
+    */
+    public final int capacity() {
+        return capacity;
+    }
+
+    /**
+    * Returns the number of available units.
+    */
+    public final int available() {
+        return available;
+    }
+
+    /**
+    * Returns the number of units in use.
+    */
+    public final int inUse() {
+        return capacity - available;
+    }
+
+    /**
+    * Returns the queue of waiting processes.
+    */
+    public final Head queue() {
+        return queue;
+    }
+
+    /**
+    * Throws a run-time exception with a specified error
+    * message.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * always.
+    */
+    private static void error(String msg) {
+        throw new RuntimeException(msg);
+    }
+}
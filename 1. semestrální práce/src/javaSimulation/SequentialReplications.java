@@ -0,0 +1,295 @@
+/*
+  File: SequentialReplications.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.LongFunction;
+import java.util.function.ToDoubleFunction;
+import javaSimulation.statistics.Tally;
+
+/**
+* This class may be used for running replications of a simulation
+* model until the confidence intervals of its results are narrow
+* enough (a sequential stopping rule).
+* <p>
+* The replications are run in parallel by <tt>Replications</tt>, in
+* rounds. After each round, the half-width of the confidence
+* interval of each result is compared with the relative precision
+* times the absolute value of its mean. The run stops as soon as every
+* result meets the target, or when the maximum number of
+* replications has been run.
+* <p>
+* The first round runs the minimum number of replications.
+* Each further round runs the number of replications that the current
+* variances predict to be missing, but at least one for each thread
+* and at most as many as have been run so far, since the variances
+* of the first rounds are themselves uncertain.
+* Replication <tt>i</tt> uses the seed <tt>Replications.seed(seed, i)</tt>,
+* as with <tt>Replications.run</tt>.
+* <p>
+* Example:
+* <pre>
+*     SequentialReplications&lt;Model&gt; s =
+*         new SequentialReplications&lt;&gt;(seed -&gt; new Model(seed))
+*             .result("wait", m -&gt; m.averageWait)
+*             .precision(0.05)
+*             .run();
+*     s.write(System.out);
+* </pre>
+*
+* @see javaSimulation.Replications
+* @see javaSimulation.statistics.Tally#halfWidth
+*/
+
+public final class SequentialReplications<M extends Process> {
+    private final LongFunction<? extends M> factory;
+    private final List<String> resultNames = new ArrayList<>();
+    private final List<ToDoubleFunction<? super M>> resultFunctions =
+        new ArrayList<>();
+    private double precision = 0.05;
+    private double level = 0.95;
+    private int minReplications = 10;
+    private int maxReplications = 1000;
+    private long seed = 9;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private Tally[] results;
+    private int replications;
+
+    /**
+    * Creates a sequential run of the models created by the specified
+    * factory.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>factory</tt> is <tt>null</tt>.
+    */
+    public SequentialReplications(LongFunction<? extends M> factory) {
+        if (factory == null)
+            error("SequentialReplications: The factory is null");
+        this.factory = factory;
+    }
+
+    /**
+    * Adds a result to be extracted from each replication.
+    * Every result must meet the precision target.
+    *
+    * @return This run.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if the result is already defined.
+    */
+    public SequentialReplications<M> result(String name,
+                                            ToDoubleFunction<? super M> f) {
+        if (resultNames.contains(name))
+            error("result: " + name + " is defined");
+        resultNames.add(name);
+        resultFunctions.add(f);
+        return this;
+    }
+
+    /**
+    * Sets the relative precision (default 0.05): the largest
+    * allowed ratio of the half-width of a confidence interval to the
+    * absolute value of its mean.
+    *
+    * @return This run.
+    */
+    public SequentialReplications<M> precision(double p) {
+        if (!(p > 0))
+            error("precision: p must be positive");
+        precision = p;
+        return this;
+    }
+
+    /**
+    * Sets the confidence level (default 0.95).
+    *
+    * @return This run.
+    */
+    public SequentialReplications<M> level(double level) {
+        if (!(level > 0 && level < 1))
+            error("level: level must be between 0 and 1");
+        this.level = level;
+        return this;
+    }
+
+    /**
+    * Sets the minimum and maximum number of replications
+    * (default 10 and 1000).
+    *
+    * @return This run.
+    */
+    public SequentialReplications<M> replications(int min, int max) {
+        if (min < 2 || max < min)
+            error("replications: Illegal number of replications");
+        minReplications = min;
+        maxReplications = max;
+        return this;
+    }
+
+    /**
+    * Sets the base seed of the replications (default 9).
+    *
+    * @return This run.
+    */
+    public SequentialReplications<M> seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+    * Sets the number of threads (default: the number of available
+    * processors).
+    *
+    * @return This run.
+    */
+    public SequentialReplications<M> parallelism(int n) {
+        if (n <= 0)
+            error("parallelism: n must be positive");
+        parallelism = n;
+        return this;
+    }
+
+    /**
+    * Runs replications until every result meets the precision
+    * target, or the maximum number of replications has been run.
+    *
+    * @return This run.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if no result is defined, or a replication fails.
+    */
+    public SequentialReplications<M> run() {
+        if (resultNames.isEmpty())
+            error("run: No results are defined");
+        results = new Tally[resultNames.size()];
+        for (int i = 0; i < results.length; i++)
+            results[i] = new Tally();
+        replications = 0;
+        int next = minReplications;
+        while (next > replications) {
+            List<M> runs = Replications.runAll(replications, next, parallelism,
+                                               r -> factory.apply(Replications.seed(seed, r)));
+            for (M model : runs)
+                for (int i = 0; i < results.length; i++)
+                    results[i].add(resultFunctions.get(i).applyAsDouble(model));
+            replications = next;
+            next = Math.min(maxReplications, replications +
+                            Math.max(parallelism, Math.min(missing(), replications)));
+            if (converged())
+                break;
+        }
+        return this;
+    }
+
+    /**
+    * Tests if every result meets the precision target.
+    */
+    public boolean converged() {
+        if (results == null)
+            return false;
+        for (int i = 0; i < results.length; i++)
+            if (!(halfWidth(i) <= precision * Math.abs(results[i].mean())))
+                return false;
+        return true;
+    }
+
+    /**
+    * Returns the number of replications that have been run.
+    */
+    public int replications() {
+        return replications;
+    }
+
+    /**
+    * Returns the summary of the specified result, or
+    * <tt>null</tt> if the replications have not been run.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if there is no result with the specified name.
+    */
+    public Tally result(String name) {
+        int i = resultIndex(name);
+        return results != null ? results[i] : null;
+    }
+
+    /**
+    * Returns the half-width of the confidence interval of the
+    * specified result.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if there is no result with the specified name, or the
+    * replications have not been run.
+    */
+    public double halfWidth(String name) {
+        int i = resultIndex(name);
+        if (results == null)
+            error("halfWidth: The replications have not been run");
+        return halfWidth(i);
+    }
+
+    /**
+    * Writes the confidence interval of each result, its relative
+    * half-width, and the number of replications used.
+    */
+    public void write(PrintStream out) {
+        for (int i = 0; i < resultNames.size(); i++) {
+            if (results == null) {
+                out.println(resultNames.get(i) + ": -");
+                continue;
+            }
+            double mean = results[i].mean(), h = halfWidth(i);
+            out.println(String.format(Locale.ROOT,
+                                      "%s: %.4f +/- %.4f (%.1f%% level, relative %.4f)",
+                                      resultNames.get(i), mean, h, level * 100,
+                                      h / Math.abs(mean)));
+        }
+        out.println("Replications: " + replications +
+                    (converged() ? "" : " (precision not reached)"));
+    }
+
+    private double halfWidth(int i) {
+        return results[i].halfWidth(level);
+    }
+
+    /**
+    * Returns the number of further replications that the current
+    * variances predict to be needed.
+    */
+    private int missing() {
+        double needed = replications;
+        for (int i = 0; i < results.length; i++) {
+            double target = precision * Math.abs(results[i].mean());
+            double h = halfWidth(i);
+            if (h > target)
+                needed = Math.max(needed, target > 0 ?
+                                  replications * (h / target) * (h / target) :
+                                  Double.POSITIVE_INFINITY);
+        }
+        return (int) Math.min(Math.ceil(needed) - replications, replications);
+    }
+
+    private int resultIndex(String name) {
+        int i = resultNames.indexOf(name);
+        if (i < 0)
+            error("Unknown result " + name);
+        return i;
+    }
+
+    /**
+    * Throws a run-time exception with a specified error
+    * message.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * always.
+    */
+    private static void error(String msg) {
+        throw new RuntimeException(msg);
+    }
+}
@@ -0,0 +1,241 @@
+/*
+  File: Simulation.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+
+/**
+* This class holds the state of a simulation: its event list,
+* its main process and the list of its live processes.
+* <p>
+* A simulation is run by <tt>run(main)</tt>, which activates
+* the main process and returns when the main process has terminated.
+* Each simulation has its own state, so simulations run by different
+* threads do not interfere with each other.
+* This makes it possible to run independent replications of
+* a model in parallel.
+* <p>
+* If the actions of a process throw an exception, the simulation 
+* ends as if its main process had terminated: the remaining processes 
+* are terminated, and the exception is rethrown by <tt>run</tt>.
+* <p>
+* A process that is activated from outside any simulation
+* starts a new simulation that uses a <tt>LinkedEventList</tt>.
+*
+* @see javaSimulation.Process
+* @see javaSimulation.EventList
+* @see javaSimulation.Replications
+*/
+
+public final class Simulation {
+    /**
+    * The simulation of each thread that takes part in a simulation.
+    */
+    static final ThreadLocal<Simulation> CURRENT = new ThreadLocal<>();
+
+    /**
+    * The event list: the selected event list, together with the
+    * batch of processes scheduled at the current time.
+    */
+    final EventList SQS;
+
+    /**
+    * The main process.
+    * This is the first activated process in the simulation.
+    */
+    Process MAIN;
+
+    /**
+    * The first of the processes that have been started and not yet
+    * terminated (the live processes).
+    * The live processes form a two-way list through their
+    * <tt>LIVEPRED</tt> and <tt>LIVESUC</tt> fields. 
+    * Only one process of a simulation runs at a time, so the list
+    * needs no synchronization.
+    */
+    private Process LIVE;
+
+    /**
+    * An indication of whether the simulation is terminating.
+    */
+    boolean termination;
+
+    /**
+    * The stepped process whose actions are being executed, 
+    * or <tt>null</tt>.
+    */
+    Process stepping;
+
+    /**
+    * An indication of whether the simulation has been run.
+    */
+    private boolean RUN;
+
+    /**
+    * The first exception thrown by the actions of a coroutine 
+    * process, or <tt>null</tt>.
+    */
+    Throwable failure;
+
+    /**
+    * The time at which the simulation ended, or <tt>NaN</tt>.
+    */
+    private double endTime = Double.NaN;
+
+    /**
+    * Creates a simulation that uses a <tt>LinkedEventList</tt>.
+    */
+    public Simulation() {
+        this(new LinkedEventList());
+    }
+
+    /**
+    * Creates a simulation that uses the specified event list.
+    *
+    * @param <tt>list</tt> The event list.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>list</tt> is <tt>null</tt> or not empty.
+    */
+    public Simulation(EventList list) {
+        if (list == null || !list.empty())
+            error("Simulation: The list is null or not empty");
+        SQS = new BatchedEventList(list);
+    }
+
+    /**
+    * Runs this simulation with the specified process as its main
+    * process.
+    * The method returns when the main process has terminated.
+    *
+    * @param <tt>main</tt> The main process.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>main</tt> is <tt>null</tt> or has been activated,
+    * if the simulation has been run, or if the calling thread
+    * takes part in another simulation. An exception thrown by 
+    * the actions of a process is rethrown, after the simulation 
+    * has ended.
+    */
+    public void run(Process main) {
+        if (main == null || main.SIM != null)
+            error("run: The process is null or has been activated");
+        if (RUN)
+            error("run: The simulation has been run");
+        if (CURRENT.get() != null)
+            error("run: Called from a running simulation");
+        RUN = true;
+        Process.start(this, main);
+    }
+
+    /**
+    * Returns the simulation of the calling thread,
+    * or <tt>null</tt> if the thread takes no part in a simulation.
+    */
+    public static Simulation current() {
+        return CURRENT.get();
+    }
+
+    /**
+    * Returns the current simulation time.
+    * After the simulation has ended, the time at which it ended 
+    * is returned, so that time-weighted statistics may be read 
+    * when <tt>run</tt> has returned.
+    */
+    public double time() {
+        Process CURRENT = SQS.first();
+        if (CURRENT != null)
+            return CURRENT.EVTIME;
+        return Double.isNaN(endTime) ? 0 : endTime;
+    }
+
+    /**
+    * Stops the clock at the current time, as the simulation ends.
+    */
+    void stopClock() {
+        if (Double.isNaN(endTime))
+            endTime = time();
+    }
+
+    /**
+    * Returns the main process, or <tt>null</tt> if the simulation
+    * is not running.
+    */
+    public Process main() {
+        return MAIN;
+    }
+
+    /**
+    * Returns the event list.
+    */
+    public EventList eventList() {
+        return SQS;
+    }
+
+    /**
+    * Records an exception thrown by the actions of a process.
+    * Only the first exception is kept.
+    */
+    void fail(Throwable e) {
+        if (failure == null)
+            failure = e;
+    }
+
+    /**
+    * Adds a process to the live processes.
+    *
+    * @param <tt>p</tt> The process (not live).
+    */
+    void enter(Process p) {
+        p.LIVEPRED = null;
+        p.LIVESUC = LIVE;
+        if (LIVE != null)
+            LIVE.LIVEPRED = p;
+        LIVE = p;
+        p.LIVING = true;
+    }
+
+    /**
+    * Removes a process from the live processes.
+    * If it is not live, the call has no effect.
+    *
+    * @param <tt>p</tt> The process.
+    */
+    void leave(Process p) {
+        if (!p.LIVING)
+            return;
+        if (p.LIVEPRED != null)
+            p.LIVEPRED.LIVESUC = p.LIVESUC;
+        else
+            LIVE = p.LIVESUC;
+        if (p.LIVESUC != null)
+            p.LIVESUC.LIVEPRED = p.LIVEPRED;
+        p.LIVEPRED = p.LIVESUC = null;
+        p.LIVING = false;
+    }
+
+    /**
+    * Removes and returns the most recently started live process,
+    * or <tt>null</tt> if there are no live processes.
+    */
+    Process leaveFirst() {
+        Process p = LIVE;
+        if (p != null)
+            leave(p);
+        return p;
+    }
+
+    /**
+    * Throws a run-time exception with a specified error
+    * message.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * always.
+    */
+    private static void error(String msg) {
+        throw new RuntimeException(msg);
+    }
+}
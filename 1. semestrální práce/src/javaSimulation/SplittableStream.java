@@ -0,0 +1,28 @@
+/*
+  File: SplittableStream.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+
+/**
+* A <tt>RandomStream</tt> that draws from a 
+* <tt>java.util.SplittableRandom</tt>.
+*/
+final class SplittableStream implements RandomStream {
+    private final java.util.SplittableRandom random;
+
+    SplittableStream(java.util.SplittableRandom random) {
+        this.random = random;
+    }
+
+    public long nextLong() {
+        return random.nextLong();
+    }
+
+    public RandomStream split() {
+        return new SplittableStream(random.split());
+    }
+}
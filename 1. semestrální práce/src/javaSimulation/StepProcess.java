@@ -0,0 +1,61 @@
+/*
+  File: StepProcess.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+
+/**
+* This class may be used for processes that are executed by the 
+* step engine instead of by coroutines.
+* <p>
+* A stepped process has no coroutine and no thread. 
+* Each time it becomes the current process, its <tt>actions</tt> 
+* method is called by the thread that passed control on, 
+* so a process switch costs a method call.
+* <p>
+* The <tt>actions</tt> method is executed until the process calls 
+* a scheduling operation of class <tt>Process</tt> that suspends it, 
+* and it must then return. 
+* The operations that suspend the process are <tt>hold</tt>, 
+* <tt>passivate</tt> and <tt>wait</tt>, <tt>cancel</tt> or 
+* <tt>reactivate</tt> of the process itself, and an activation 
+* that places another process in front of it (a direct activation,
+* or one <tt>before</tt> the process or <tt>prior</tt> at the 
+* current time). 
+* Other operations, for example <tt>activate(x, delay, 5)</tt>, 
+* do not suspend the process, which continues its actions. 
+* The operations have the same effect on the event list as for
+* any other process, but they never block; the next call of 
+* <tt>actions</tt> takes place when the process becomes current again.
+* If <tt>actions</tt> returns without having suspended the process, 
+* the process terminates.
+* <p>
+* The state of a stepped process between calls must be kept in
+* fields. The field <tt>state</tt> is provided for this purpose:
+* <pre>
+*    class Customer extends StepProcess {
+*        protected void actions() {
+*            switch (state++) {
+*            case 0: hold(5); break;                  // arrive
+*            case 1: wait(queue); break;              // queue up
+*            }                                        // terminate
+*        }
+*    }</pre>
+* A simulation whose main process is stepped is executed entirely 
+* by the thread that activated the main process, and only stepped 
+* processes may take part in it. 
+* A simulation whose main process is an ordinary process may 
+* contain any mixture of stepped and ordinary processes.
+*
+* @see javaSimulation.Process
+*/
+public abstract class StepProcess extends Process {
+    /**
+    * The state of this process between calls of <tt>actions</tt>.
+    * Initially zero.
+    */
+    protected int state;
+}
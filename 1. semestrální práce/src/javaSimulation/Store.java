@@ -0,0 +1,96 @@
+/*
+  File: Store.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+import java.util.ArrayDeque;
+
+/**
+* This class may be used for an unbounded first-in, first-out store
+* of objects, such as messages or parts, that processes put into and
+* take out of the store.
+* <p>
+* A process that takes from an empty store waits in a first-come,
+* first-served queue. When an object is put, it is handed over
+* directly to the first waiting process, and only that process is
+* activated.
+* <p>
+* A stepped process must return from <tt>actions</tt> after calling
+* <tt>take</tt>. If it has to wait, <tt>take</tt> returns
+* <tt>null</tt>, and the object handed over is then obtained by
+* <tt>item</tt> when the process continues.
+*
+* @see javaSimulation.Resource
+* @see javaSimulation.Bin
+*/
+
+public class Store<T> {
+    private final ArrayDeque<T> items = new ArrayDeque<>();
+    private final Head takers = new Head();
+
+    /**
+    * Puts an object into the store, or hands it over to the first
+    * waiting process.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>x</tt> is <tt>null</tt>.
+    */
+    public void put(T x) {
+        if (x == null)
+            throw new RuntimeException("put: The object is null");
+        Process p = (Process) takers.first();
+        if (p == null) {
+            items.add(x);
+            return;
+        }
+        p.ITEM = x;
+        p.out();
+        Process.activate(p, Process.delay, 0);
+    }
+
+    /**
+    * Takes the first object of the store for the current process,
+    * waiting if the store is empty.
+    *
+    * @return The object, or <tt>null</tt> if the current process is
+    * a stepped process that has to wait.
+    */
+    @SuppressWarnings("unchecked")
+    public T take() {
+        Process p = Process.current();
+        if (takers.empty() && !items.isEmpty()) {
+            p.ITEM = items.poll();
+            Process.proceed();
+        } else {
+            p.ITEM = null;
+            Process.wait(takers);
+        }
+        return (T) p.ITEM;
+    }
+
+    /**
+    * Returns the object most recently handed over to the current
+    * process by a store.
+    */
+    @SuppressWarnings("unchecked")
+    public T item() {
+        return (T) Process.current().ITEM;
+    }
+
+    /**
+    * Returns the number of objects in the store.
+    */
+    public final int size() {
+        return items.size();
+    }
+
+    /**
+    * Returns the queue of processes waiting to take.
+    */
+    public final Head takers() {
+        return takers;
+    }
+}
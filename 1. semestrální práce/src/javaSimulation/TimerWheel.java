@@ -0,0 +1,392 @@
+/*
+  File: TimerWheel.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+
+/**
+* This class may be used for periodic and near-future actions on
+* a fixed time grid, such as regular departures, sampling or
+* snapshots, which would otherwise crowd the event list.
+* <p>
+* The time axis is divided into ticks of a fixed length, counted
+* from the time at which the wheel is created. A timer fires at
+* a tick: its delay is rounded up to a whole number of ticks, and
+* a periodic timer fires again after a whole number of ticks.
+* The timers are held in a hierarchical timing wheel
+* (G. Varghese and T. Lauck, 1987) of four levels with
+* 64 slots each, covering 2^24 ticks ahead, beyond which they are
+* kept in an overflow list. Scheduling, cancelling and firing
+* a timer take constant time; a timer is moved down a level at
+* most three times on its way to firing.
+* <p>
+* The wheel takes part in the simulation as a single stepped
+* process, which is scheduled in the event list only for the
+* ticks at which a timer fires or a slot is moved down.
+* However many timers are running, the event list holds only
+* this process, so irregular events are not slowed down by the
+* timers. The timers of a tick fire in an unspecified order,
+* after the processes scheduled for the same time.
+* <p>
+* Like the actions of an <tt>Event</tt>, the actions of the timers
+* are called by the scheduler and must not call <tt>hold</tt>,
+* <tt>passivate</tt> or <tt>wait</tt>. They may activate processes
+* and schedule and cancel timers.
+* <p>
+* Example:
+* <pre>
+*     TimerWheel wheel = new TimerWheel(1);
+*     wheel.schedulePeriodic(0, 40, () -&gt; activate(new Cabin()));
+* </pre>
+*
+* @see javaSimulation.Event
+*/
+
+public class TimerWheel {
+    private static final int BITS = 6, SLOTS = 1 << BITS, MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    /**
+    * The relative tolerance used when times are converted to ticks.
+    */
+    private static final double EPS = 1e-12;
+
+    /**
+    * The level of a timer that is not in the wheel, and of a timer
+    * whose action is being executed.
+    */
+    private static final int IDLE = -1, FIRING = -2;
+
+    /**
+    * A timer of the wheel.
+    */
+    public static final class Timer {
+        private final TimerWheel wheel;
+        private final Runnable action;
+        private final long period;
+        private long due;
+        private int level = IDLE, slot;
+        private Timer pred, suc;
+
+        private Timer(TimerWheel wheel, Runnable action, long period) {
+            this.wheel = wheel;
+            this.action = action;
+            this.period = period;
+        }
+
+        /**
+        * Returns the time at which this timer fires next.
+        */
+        public double time() {
+            return wheel.timeOf(due);
+        }
+
+        /**
+        * Tests if this timer is still to fire.
+        */
+        public boolean active() {
+            return level != IDLE;
+        }
+
+        /**
+        * Cancels this timer. If it is not active, the call has
+        * no effect.
+        */
+        public void cancel() {
+            if (level >= 0) {
+                wheel.unlink(this);
+                wheel.size--;
+            } else if (level == FIRING && period > 0)
+                wheel.size--;
+            level = IDLE;
+        }
+    }
+
+    private final double tick, origin;
+
+    /**
+    * The lists of timers of the slots of each level, and the
+    * overflow list as the only slot of the last level.
+    */
+    private final Timer[][] heads = new Timer[LEVELS + 1][SLOTS];
+    private final Timer[][] tails = new Timer[LEVELS + 1][SLOTS];
+
+    /**
+    * The non-empty slots of each level, one bit per slot.
+    */
+    private final long[] occupied = new long[LEVELS + 1];
+
+    /**
+    * The last tick processed, the tick for which the driver is
+    * scheduled, and the number of active timers. The ticks are
+    * numbered from 1, the tick at which the wheel was created.
+    */
+    private long now, wake;
+    private int size;
+    private boolean firing;
+
+    private final StepProcess driver = new StepProcess() {
+        protected void actions() {
+            advance();
+        }
+    };
+
+    /**
+    * Creates a timer wheel with the specified tick length.
+    * Its ticks are counted from the current simulation time.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>tick</tt> is not positive.
+    */
+    public TimerWheel(double tick) {
+        if (!(tick > 0) || tick == Double.POSITIVE_INFINITY)
+            error("TimerWheel: Illegal tick length");
+        this.tick = tick;
+        origin = Process.time();
+    }
+
+    /**
+    * Schedules an action to take place once, after a specified delay.
+    *
+    * @param <tt>t</tt> The delay, which is rounded up to the next tick.
+    * @param <tt>action</tt> The action.
+    *
+    * @return The timer, which may be cancelled.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>t</tt> is negative or <tt>action</tt> is <tt>null</tt>.
+    */
+    public Timer schedule(double t, Runnable action) {
+        return schedulePeriodic(t, 0, action);
+    }
+
+    /**
+    * Schedules an action to take place once, at a specified time.
+    *
+    * @param <tt>t</tt> The time, which is rounded up to the next tick.
+    * If it has passed, the action takes place at the next tick.
+    * @param <tt>action</tt> The action.
+    *
+    * @return The timer, which may be cancelled.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>action</tt> is <tt>null</tt>.
+    */
+    public Timer scheduleAt(double t, Runnable action) {
+        return schedulePeriodic(Math.max(t - Process.time(), 0), 0, action);
+    }
+
+    /**
+    * Schedules an action to take place after a specified delay, and
+    * then repeatedly with a specified period until the timer is
+    * cancelled.
+    *
+    * @param <tt>t</tt> The delay, which is rounded up to the next tick.
+    * @param <tt>period</tt> The period, which must be a whole number
+    * of ticks, or 0 for an action that takes place once.
+    * @param <tt>action</tt> The action.
+    *
+    * @return The timer, which may be cancelled.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>t</tt> is negative, <tt>period</tt> is not a whole
+    * number of ticks, or <tt>action</tt> is <tt>null</tt>.
+    */
+    public Timer schedulePeriodic(double t, double period, Runnable action) {
+        if (!(t >= 0) || t == Double.POSITIVE_INFINITY)
+            error("schedule: Illegal delay");
+        if (action == null)
+            error("schedule: The action is null");
+        double k = period / tick;
+        long n = Math.round(k);
+        if (n < 0 || Math.abs(k - n) > EPS * Math.max(k, 1))
+            error("schedule: The period is not a whole number of ticks");
+        double T = Process.time();
+        if (size == 0 && !firing)
+            now = Math.max(now, toTick(T) - 1);
+        Timer x = new Timer(this, action, n);
+        x.due = Math.max(toTick(T + t), now + 1);
+        size++;
+        insert(x);
+        if (!firing) {
+            long w = wakeTick(x);
+            if (driver.idle() || w < wake) {
+                wake = w;
+                Process.reactivate(driver, Process.at, timeOf(w));
+            }
+        }
+        return x;
+    }
+
+    /**
+    * Returns the number of active timers.
+    */
+    public final int size() {
+        return size;
+    }
+
+    /**
+    * Returns the tick length.
+    */
+    public final double tick() {
+        return tick;
+    }
+
+    /**
+    * Returns the first tick at or after a specified time.
+    */
+    private long toTick(double t) {
+        double k = (t - origin) / tick + 1;
+        long n = Math.round(k);
+        return Math.abs(k - n) <= EPS * Math.max(Math.abs(k), 1) ?
+               n : (long) Math.ceil(k);
+    }
+
+    /**
+    * Returns the time of a specified tick.
+    */
+    private double timeOf(long n) {
+        return origin + (n - 1) * tick;
+    }
+
+    /**
+    * Processes the tick for which the driver is scheduled:
+    * moves down the slots that have come due, fires the timers of
+    * the tick, and schedules the driver for the next tick at which
+    * there is work to do.
+    */
+    private void advance() {
+        long t = now = wake;
+        if ((t & (1L << BITS * LEVELS) - 1) == 0)
+            cascade(LEVELS, 0);
+        for (int i = LEVELS - 1; i > 0; i--)
+            if ((t & (1L << BITS * i) - 1) == 0)
+                cascade(i, (int) (t >>> BITS * i) & MASK);
+        int s = (int) t & MASK;
+        firing = true;
+        try {
+            Timer x;
+            while ((x = heads[0][s]) != null) {
+                unlink(x);
+                x.level = FIRING;
+                if (x.period == 0)
+                    size--;
+                x.action.run();
+                if (x.level == FIRING) {
+                    if (x.period > 0) {
+                        x.due += x.period;
+                        insert(x);
+                    } else
+                        x.level = IDLE;
+                }
+            }
+        } finally {
+            firing = false;
+        }
+        long w = nextTick();
+        if (w < 0)
+            Process.passivate();
+        else {
+            wake = w;
+            Process.reactivate(driver, Process.at, timeOf(w));
+        }
+    }
+
+    /**
+    * Moves the timers of a slot down to the levels below.
+    */
+    private void cascade(int level, int slot) {
+        Timer x = heads[level][slot];
+        if (x == null)
+            return;
+        heads[level][slot] = tails[level][slot] = null;
+        occupied[level] &= ~(1L << slot);
+        while (x != null) {
+            Timer next = x.suc;
+            x.pred = x.suc = null;
+            insert(x);
+            x = next;
+        }
+    }
+
+    /**
+    * Inserts a timer into the slot of its due tick, at the lowest
+    * level at which the tick agrees with the last processed tick
+    * in all higher digits.
+    */
+    private void insert(Timer x) {
+        long d = x.due;
+        int level = 0;
+        while (level < LEVELS && d >>> BITS * (level + 1) != now >>> BITS * (level + 1))
+            level++;
+        int slot = level < LEVELS ? (int) (d >>> BITS * level) & MASK : 0;
+        x.level = level;
+        x.slot = slot;
+        x.pred = tails[level][slot];
+        if (x.pred != null)
+            x.pred.suc = x;
+        else {
+            heads[level][slot] = x;
+            occupied[level] |= 1L << slot;
+        }
+        tails[level][slot] = x;
+    }
+
+    private void unlink(Timer x) {
+        int level = x.level, slot = x.slot;
+        if (x.pred != null)
+            x.pred.suc = x.suc;
+        else
+            heads[level][slot] = x.suc;
+        if (x.suc != null)
+            x.suc.pred = x.pred;
+        else
+            tails[level][slot] = x.pred;
+        if (heads[level][slot] == null)
+            occupied[level] &= ~(1L << slot);
+        x.pred = x.suc = null;
+    }
+
+    /**
+    * Returns the tick at which a newly inserted timer requires
+    * the driver: its due tick, or the tick at which its slot
+    * is moved down.
+    */
+    private long wakeTick(Timer x) {
+        if (x.level == LEVELS)
+            return (now >>> BITS * LEVELS) + 1 << BITS * LEVELS;
+        return x.due >>> BITS * x.level << BITS * x.level;
+    }
+
+    /**
+    * Returns the next tick after the last processed tick at which
+    * a timer fires or a slot is moved down, or -1 if there are
+    * no timers.
+    */
+    private long nextTick() {
+        for (int i = 0; i < LEVELS; i++) {
+            int digit = (int) (now >>> BITS * i) & MASK;
+            long later = digit == MASK ? 0 : occupied[i] & -1L << digit + 1;
+            if (later != 0)
+                return (now >>> BITS * (i + 1) << BITS * (i + 1)) |
+                       (long) Long.numberOfTrailingZeros(later) << BITS * i;
+        }
+        if (occupied[LEVELS] != 0)
+            return (now >>> BITS * LEVELS) + 1 << BITS * LEVELS;
+        return -1;
+    }
+
+    /**
+    * Throws a run-time exception with a specified error
+    * message.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * always.
+    */
+    private static void error(String msg) {
+        throw new RuntimeException(msg);
+    }
+}
@@ -0,0 +1,146 @@
+/*
+  File: Xoshiro256.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+
+/**
+* The xoshiro256** generator of Blackman and Vigna.
+* <p>
+* The generator has a period of 2<sup>256</sup>-1 and passes 
+* the common statistical test suites. 
+* Its state is four <tt>long</tt> values, which are initialized 
+* from the seed by the SplitMix64 generator.
+* <p>
+* <tt>jump</tt> advances the generator by 2<sup>128</sup> steps,
+* and <tt>longJump</tt> by 2<sup>192</sup> steps.
+* <tt>split</tt> returns a copy of the generator and then jumps,
+* so up to 2<sup>128</sup> streams of length 2<sup>128</sup> can be 
+* split off without overlap.
+* <p>
+* The generator is not synchronized.
+*
+* @see javaSimulation.RandomStream
+* @see javaSimulation.Random
+*/
+public final class Xoshiro256 implements RandomStream {
+    private static final long[] JUMP = {
+        0x180ec6d33cfd0abaL, 0xd5a61266f0c9392cL, 
+        0xa9582618e03fc9aaL, 0x39abdc4529b1661cL
+    };
+
+    private static final long[] LONG_JUMP = {
+        0x76e15d3efefdcbbfL, 0xc5004e441c522fb3L, 
+        0x77710069854ee241L, 0x39109bb02acbe635L
+    };
+
+    private long s0, s1, s2, s3;
+
+    /**
+    * Creates a generator with the given seed value.
+    *
+    * @param <tt>seed</tt> The seed value.
+    */
+    public Xoshiro256(long seed) {
+        s0 = mix(seed += 0x9E3779B97F4A7C15L);
+        s1 = mix(seed += 0x9E3779B97F4A7C15L);
+        s2 = mix(seed += 0x9E3779B97F4A7C15L);
+        s3 = mix(seed +  0x9E3779B97F4A7C15L);
+    }
+
+    private Xoshiro256(long s0, long s1, long s2, long s3) {
+        this.s0 = s0; this.s1 = s1; this.s2 = s2; this.s3 = s3;
+    }
+
+    /**
+    * Returns the next 64 random bits.
+    */
+    public long nextLong() {
+        long result = Long.rotateLeft(s1 * 5, 7) * 9;
+        long t = s1 << 17;
+        s2 ^= s0;
+        s3 ^= s1;
+        s1 ^= s2;
+        s0 ^= s3;
+        s2 ^= t;
+        s3 = Long.rotateLeft(s3, 45);
+        return result;
+    }
+
+    /**
+    * Fills part of an array with <tt>double</tt>s uniformly 
+    * distributed in [0;1).
+    * The state is kept in local variables during the loop.
+    */
+    public void nextDoubles(double[] out, int from, int to) {
+        long s0 = this.s0, s1 = this.s1, s2 = this.s2, s3 = this.s3;
+        for (int i = from; i < to; i++) {
+            long result = Long.rotateLeft(s1 * 5, 7) * 9;
+            long t = s1 << 17;
+            s2 ^= s0;
+            s3 ^= s1;
+            s1 ^= s2;
+            s0 ^= s3;
+            s2 ^= t;
+            s3 = Long.rotateLeft(s3, 45);
+            out[i] = (result >>> 11) * 0x1.0p-53;
+        }
+        this.s0 = s0; this.s1 = s1; this.s2 = s2; this.s3 = s3;
+    }
+
+    /**
+    * Returns a copy of this generator, and then advances this 
+    * generator by 2<sup>128</sup> steps.
+    */
+    public Xoshiro256 split() {
+        Xoshiro256 copy = copy();
+        jump();
+        return copy;
+    }
+
+    /**
+    * Returns a copy of this generator with the same state.
+    */
+    public Xoshiro256 copy() {
+        return new Xoshiro256(s0, s1, s2, s3);
+    }
+
+    /**
+    * Advances this generator by 2<sup>128</sup> steps.
+    */
+    public void jump() {
+        jump(JUMP);
+    }
+
+    /**
+    * Advances this generator by 2<sup>192</sup> steps.
+    */
+    public void longJump() {
+        jump(LONG_JUMP);
+    }
+
+    private void jump(long[] polynomial) {
+        long t0 = 0, t1 = 0, t2 = 0, t3 = 0;
+        for (long word : polynomial) {
+            for (int b = 0; b < 64; b++) {
+                if ((word & (1L << b)) != 0) {
+                    t0 ^= s0; t1 ^= s1; t2 ^= s2; t3 ^= s3;
+                }
+                nextLong();
+            }
+        }
+        s0 = t0; s1 = t1; s2 = t2; s3 = t3;
+    }
+
+    /**
+    * The SplitMix64 mixing function.
+    */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+  File: Ziggurat.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+
+/**
+* The ziggurat method of Marsaglia and Tsang for drawing from the 
+* standard normal and the standard exponential distributions.
+* <p>
+* The area under the density is covered by layers of equal area:
+* 128 layers for the normal distribution and 256 for the exponential.
+* A draw takes one <tt>nextLong</tt>: its low bits select a layer, 
+* its high bits a point in the layer. The point lies under the 
+* density in about 99% of the draws, so no logarithm, exponential 
+* or square root is computed in the common case.
+* Otherwise the point is tested against the density in the wedge
+* of the layer, or a value is drawn from the tail.
+* <p>
+* The tables are laid out as in Doornik (2005): <tt>X[i]</tt> is
+* the width of layer <tt>i</tt>, <tt>X[0]</tt> being the width of the
+* rectangle that has the same area as the base layer and its tail, 
+* and <tt>F[i]</tt> is the density at <tt>X[i]</tt>.
+*
+* @see javaSimulation.Random
+*/
+final class Ziggurat {
+    private Ziggurat() {}
+
+    /* The normal ziggurat */
+    private static final int N_LAYERS = 128;
+    private static final double N_R = 3.442619855899;
+    private static final double N_V = 9.91256303526217e-3;
+    private static final double[] NX = new double[N_LAYERS + 1];
+    private static final double[] NF = new double[N_LAYERS + 1];
+
+    /* The exponential ziggurat */
+    private static final int E_LAYERS = 256;
+    private static final double E_R = 7.69711747013104972;
+    private static final double E_V = 3.949659822581572e-3;
+    private static final double[] EX = new double[E_LAYERS + 1];
+    private static final double[] EF = new double[E_LAYERS + 1];
+
+    static {
+        NX[0] = N_V / Math.exp(-0.5 * N_R * N_R);
+        NX[1] = N_R;
+        for (int i = 1; i < N_LAYERS - 1; i++)
+            NX[i + 1] = Math.sqrt(-2 * Math.log(N_V / NX[i] + 
+                                                Math.exp(-0.5 * NX[i] * NX[i])));
+        NX[N_LAYERS] = 0;
+        for (int i = 0; i <= N_LAYERS; i++)
+            NF[i] = Math.exp(-0.5 * NX[i] * NX[i]);
+
+        EX[0] = E_V / Math.exp(-E_R);
+        EX[1] = E_R;
+        for (int i = 1; i < E_LAYERS - 1; i++)
+            EX[i + 1] = -Math.log(E_V / EX[i] + Math.exp(-EX[i]));
+        EX[E_LAYERS] = 0;
+        for (int i = 0; i <= E_LAYERS; i++)
+            EF[i] = Math.exp(-EX[i]);
+    }
+
+    /**
+    * Returns a <tt>double</tt> drawn from the standard normal 
+    * distribution.
+    *
+    * @param <tt>random</tt> The source of random bits.
+    */
+    static double normal(java.util.Random random) {
+        while (true) {
+            long u = random.nextLong();
+            int i = (int) u & (N_LAYERS - 1);
+            double x = (u >> 10) * 0x1.0p-53 * NX[i];   // Uniform in (-X[i];X[i])
+            if (Math.abs(x) < NX[i + 1])
+                return x;
+            if (i == 0)
+                return x < 0 ? -normalTail(random) : normalTail(random);
+            double y = NF[i] + random.nextDouble() * (NF[i + 1] - NF[i]);
+            if (y < Math.exp(-0.5 * x * x))
+                return x;
+        }
+    }
+
+    /**
+    * Returns a value drawn from the standard normal distribution
+    * conditioned on being greater than <tt>N_R</tt>.
+    */
+    private static double normalTail(java.util.Random random) {
+        double x, y;
+        do {
+            x = -Math.log1p(-random.nextDouble()) / N_R;
+            y = -Math.log1p(-random.nextDouble());
+        } while (y + y < x * x);
+        return N_R + x;
+    }
+
+    /**
+    * Returns a <tt>double</tt> drawn from the standard exponential 
+    * distribution (with mean 1).
+    *
+    * @param <tt>random</tt> The source of random bits.
+    */
+    static double exponential(java.util.Random random) {
+        while (true) {
+            long u = random.nextLong();
+            int i = (int) u & (E_LAYERS - 1);
+            double x = (u >>> 11) * 0x1.0p-53 * EX[i];  // Uniform in [0;X[i])
+            if (x < EX[i + 1])
+                return x;
+            if (i == 0)
+                return E_R - Math.log1p(-random.nextDouble());
+            double y = EF[i] + random.nextDouble() * (EF[i + 1] - EF[i]);
+            if (y < Math.exp(-x))
+                return x;
+        }
+    }
+}
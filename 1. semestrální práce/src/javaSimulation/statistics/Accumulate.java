@@ -0,0 +1,167 @@
+/*
+  File: Accumulate.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation.statistics;
+import javaSimulation.Simulation;
+
+/**
+* This class may be used for collecting statistics on a quantity 
+* that changes in simulated time, such as the number of busy servers.
+* <p>
+* The value is set by <tt>update</tt>. The mean is weighted by the 
+* time during which each value was held, measured by the clock of 
+* the simulation in which the accumulator was created or reset (or 
+* else first updated). That clock stops when the simulation ends, 
+* so the mean may be read after the run, from any thread.
+* Only the area under the value is kept, so the memory used does 
+* not grow with the length of the simulation.
+*
+* @see javaSimulation.statistics.Tally
+*/
+
+public class Accumulate {
+    private double value, min, max;
+    private double area, lastTime, startTime;
+    private long updates;
+    private Simulation sim;
+
+    /**
+    * Creates an accumulator with initial value 0.
+    */
+    public Accumulate() {
+        this(0);
+    }
+
+    /**
+    * Creates an accumulator with the specified initial value.
+    *
+    * @param <tt>initial</tt> The initial value.
+    */
+    public Accumulate(double initial) {
+        value = min = max = initial;
+        sim = Simulation.current();
+        startTime = lastTime = clock();
+    }
+
+    /**
+    * Sets the value at the current simulation time.
+    *
+    * @param <tt>x</tt> The new value.
+    */
+    public void update(double x) {
+        double now = clock();
+        area += value * (now - lastTime);
+        lastTime = now;
+        value = x;
+        updates++;
+        if (x < min)
+            min = x;
+        if (x > max)
+            max = x;
+    }
+
+    /**
+    * Adds the specified amount to the value at the current 
+    * simulation time.
+    *
+    * @param <tt>dx</tt> The amount.
+    */
+    public void add(double dx) {
+        update(value + dx);
+    }
+
+    /**
+    * Restarts the statistics at the current simulation time, 
+    * keeping the current value.
+    */
+    public void reset() {
+        area = 0;
+        min = max = value;
+        updates = 0;
+        sim = Simulation.current();
+        startTime = lastTime = clock();
+    }
+
+    /**
+    * Returns the current value.
+    */
+    public double value() {
+        return value;
+    }
+
+    /**
+    * Returns the number of updates.
+    */
+    public long updates() {
+        return updates;
+    }
+
+    /**
+    * Returns the time-weighted mean of the value, from the start 
+    * of the statistics up to the current time of the simulation, 
+    * or the time at which it ended.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if no simulation has used this accumulator since the 
+    * statistics were started.
+    */
+    public double mean() {
+        clock();
+        if (sim == null)
+            throw new RuntimeException("mean: There is no simulation clock");
+        return mean(sim.time());
+    }
+
+    /**
+    * Returns the time-weighted mean of the value, from the start 
+    * of the statistics up to the specified time.
+    * If no time has passed, the current value is returned.
+    *
+    * @param <tt>endTime</tt> The end of the period.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>endTime</tt> is before the last update.
+    */
+    public double mean(double endTime) {
+        if (endTime < lastTime)
+            throw new RuntimeException("mean: The end time is before the last update");
+        if (endTime == startTime)
+            return value;
+        return (area + value * (endTime - lastTime)) / (endTime - startTime);
+    }
+
+    /**
+    * Returns the smallest value.
+    */
+    public double min() {
+        return min;
+    }
+
+    /**
+    * Returns the largest value.
+    */
+    public double max() {
+        return max;
+    }
+
+    public String toString() {
+        return String.format("value = %.4f, mean = %.4f, min = %.4f, max = %.4f",
+                             value, clock() >= lastTime && sim != null ? mean() : Double.NaN, 
+                             min, max);
+    }
+
+    /**
+    * Returns the time of the simulation whose clock is used, which is 
+    * the current simulation if none has been chosen, or 0 if there 
+    * is none.
+    */
+    private double clock() {
+        if (sim == null)
+            sim = Simulation.current();
+        return sim != null ? sim.time() : 0;
+    }
+}
@@ -0,0 +1,317 @@
+/*
+  File: BatchMeans.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation.statistics;
+import java.util.Arrays;
+import javaSimulation.Simulation;
+
+/**
+* This class may be used for estimating a steady-state mean from
+* a single long run, such as the mean waiting time of customers
+* once the system has left its initial, empty state.
+* <p>
+* The data are grouped into primary batches: groups of 5
+* observations added by <tt>add</tt>, or, for a quantity that
+* changes in simulated time, its time-weighted mean over each
+* interval of a fixed length, set by <tt>update</tt>.
+* Only the means of the primary batches are kept.
+* Time is measured by the clock of the simulation in which the 
+* estimator was created or reset (or else first used), which stops 
+* when the simulation ends, so the results may be read after the run.
+* <p>
+* The initial transient is removed by the MSER-5 rule: the number
+* <tt>d</tt> of leading primary batches is chosen to minimize the
+* squared standard error of the mean of the remaining batches,
+* with <tt>d</tt> at most half of the batches.
+* The remaining batches are then grouped into a fixed number of
+* equally long batches (default 20), whose means are treated as
+* independent observations by <tt>tally</tt> and <tt>halfWidth</tt>.
+* <p>
+* Example:
+* <pre>
+*     BatchMeans waits = new BatchMeans();
+*     ...
+*     waits.add(time() - arrivalTime);
+*     ...
+*     System.out.println(waits.mean() + " +/- " + waits.halfWidth(0.95));
+* </pre>
+*
+* @see javaSimulation.statistics.Tally
+* @see javaSimulation.statistics.Accumulate
+*/
+
+public class BatchMeans {
+    /** The number of observations of a primary batch */
+    private static final int PRIMARY = 5;
+
+    private final double interval;
+    private int batches = 20;
+    private double[] means = new double[64];
+    private double[] times = new double[64];
+    private int size;
+    private double startTime;
+
+    // The primary batch being collected
+    private double sum, value, lastTime, endTime;
+    private int count;
+
+    private Simulation sim;
+
+    /**
+    * Creates an estimator for a series of observations, added by
+    * <tt>add</tt>.
+    */
+    public BatchMeans() {
+        interval = 0;
+        sim = Simulation.current();
+        startTime = clock();
+    }
+
+    /**
+    * Creates an estimator for a quantity that changes in simulated
+    * time, set by <tt>update</tt>, with initial value 0.
+    * A primary batch is the time-weighted mean of the quantity over
+    * an interval of the specified length, starting at the current
+    * simulation time.
+    *
+    * @param <tt>interval</tt> The length of the interval.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>interval</tt> is not positive.
+    */
+    public BatchMeans(double interval) {
+        if (!(interval > 0))
+            throw new RuntimeException("BatchMeans: interval must be positive");
+        this.interval = interval;
+        sim = Simulation.current();
+        startTime = lastTime = clock();
+        endTime = lastTime + interval;
+    }
+
+    /**
+    * Sets the number of batches after the warm-up (default 20).
+    *
+    * @return This estimator.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>k</tt> is less than 2.
+    */
+    public BatchMeans batches(int k) {
+        if (k < 2)
+            throw new RuntimeException("batches: k must be at least 2");
+        batches = k;
+        return this;
+    }
+
+    /**
+    * Adds an observation.
+    *
+    * @param <tt>x</tt> The observation.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if this estimator is for a quantity that changes in time.
+    */
+    public void add(double x) {
+        if (interval > 0)
+            throw new RuntimeException("add: The estimator is time-weighted");
+        sum += x;
+        if (++count == PRIMARY) {
+            store(sum / PRIMARY, clock());
+            sum = 0;
+            count = 0;
+        }
+    }
+
+    /**
+    * Sets the value of the quantity at the current simulation time.
+    *
+    * @param <tt>x</tt> The new value.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if this estimator is for a series of observations.
+    */
+    public void update(double x) {
+        if (interval == 0)
+            throw new RuntimeException("update: The estimator is not time-weighted");
+        advance(clock());
+        value = x;
+    }
+
+    /**
+    * Removes all data. A time-weighted estimator starts its first
+    * interval at the current simulation time, keeping its value.
+    */
+    public void reset() {
+        size = 0;
+        sum = 0;
+        count = 0;
+        sim = Simulation.current();
+        startTime = lastTime = clock();
+        endTime = lastTime + interval;
+    }
+
+    /**
+    * Returns the number of complete primary batches.
+    */
+    public int size() {
+        sync();
+        return size;
+    }
+
+    /**
+    * Returns the number of primary batches removed as warm-up
+    * by the MSER-5 rule.
+    */
+    public int warmup() {
+        sync();
+        return mser();
+    }
+
+    /**
+    * Returns the simulation time at which the warm-up ends, i.e.,
+    * the time at which the last removed primary batch was
+    * completed, or the time at which this estimator was created
+    * or reset if none is removed.
+    */
+    public double warmupTime() {
+        sync();
+        int d = mser();
+        return d > 0 ? times[d - 1] : startTime;
+    }
+
+    /**
+    * Returns the steady-state mean: the mean of the primary batches
+    * after the warm-up, or 0 if there are none.
+    */
+    public double mean() {
+        sync();
+        int d = mser();
+        if (size == d)
+            return 0;
+        double s = 0;
+        for (int j = d; j < size; j++)
+            s += means[j];
+        return s / (size - d);
+    }
+
+    /**
+    * Returns a tally of the batch means after the warm-up.
+    * There are as many batch means as set by <tt>batches</tt>,
+    * or one for each primary batch if there are fewer primary
+    * batches. When the primary batches do not divide evenly,
+    * the first ones after the warm-up are left out.
+    */
+    public Tally tally() {
+        sync();
+        int d = mser();
+        int k = Math.min(batches, size - d);
+        Tally t = new Tally();
+        if (k == 0)
+            return t;
+        int b = (size - d) / k;
+        for (int j = size - k * b; j < size; j += b) {
+            double s = 0;
+            for (int i = j; i < j + b; i++)
+                s += means[i];
+            t.add(s / b);
+        }
+        return t;
+    }
+
+    /**
+    * Returns the half-width of the confidence interval for the
+    * steady-state mean at the specified level, based on the
+    * batch means.
+    *
+    * @param <tt>level</tt> The confidence level, e.g. 0.95.
+    */
+    public double halfWidth(double level) {
+        return tally().halfWidth(level);
+    }
+
+    public String toString() {
+        return String.format("mean = %.4f, half-width = %.4f, warm-up = %.4f, batches = %d",
+                             mean(), halfWidth(0.95), warmupTime(), size());
+    }
+
+    /**
+    * Completes the intervals that have elapsed up to the current
+    * time of the simulation, or the time at which it ended.
+    */
+    private void sync() {
+        if (interval > 0)
+            advance(clock());
+    }
+
+    /**
+    * Accumulates the value up to <tt>now</tt>, completing the
+    * intervals that end on the way. A time before the last 
+    * update is ignored.
+    */
+    private void advance(double now) {
+        if (now < lastTime)
+            return;
+        while (now >= endTime) {
+            sum += value * (endTime - lastTime);
+            store(sum / interval, endTime);
+            sum = 0;
+            lastTime = endTime;
+            endTime += interval;
+        }
+        sum += value * (now - lastTime);
+        lastTime = now;
+    }
+
+    /**
+    * Returns the time of the simulation whose clock is used, which is 
+    * the current simulation if none has been chosen, or 0 if there 
+    * is none.
+    */
+    private double clock() {
+        if (sim == null)
+            sim = Simulation.current();
+        return sim != null ? sim.time() : 0;
+    }
+
+    private void store(double mean, double time) {
+        if (size == means.length) {
+            means = Arrays.copyOf(means, 2 * size);
+            times = Arrays.copyOf(times, 2 * size);
+        }
+        means[size] = mean;
+        times[size++] = time;
+    }
+
+    /**
+    * Returns the MSER truncation point of the primary batches:
+    * the <tt>d</tt> in [0;size/2] that minimizes
+    * sum((Z[j] - mean(d))^2, j &gt;= d) / (size - d)^2.
+    * The sums are accumulated from the end, so all candidates
+    * are evaluated in one pass.
+    */
+    private int mser() {
+        if (size < 2)
+            return 0;
+        double shift = means[size - 1];     // Reduces cancellation
+        double s = 0, q = 0, best = Double.POSITIVE_INFINITY;
+        int d = 0;
+        for (int j = size - 1; j >= 0; j--) {
+            double z = means[j] - shift;
+            s += z;
+            q += z * z;
+            int m = size - j;
+            if (j <= size / 2) {
+                double mser = (q - s * s / m) / ((double) m * m);
+                if (mser <= best) {
+                    best = mser;
+                    d = j;
+                }
+            }
+        }
+        return d;
+    }
+}
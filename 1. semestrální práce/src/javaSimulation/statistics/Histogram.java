@@ -0,0 +1,263 @@
+/*
+  File: Histogram.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation.statistics;
+
+/**
+* This class may be used for estimating the distribution and the 
+* percentiles of a series of observations.
+* <p>
+* The observations are counted in a fixed array of bins, so the memory 
+* used does not depend on the number of observations.
+* Two layouts of the bins are available:
+* <ul>
+* <li><tt>new Histogram(low, high, bins)</tt> divides the interval 
+* <tt>[low, high)</tt> into bins of equal width. 
+* <li><tt>Histogram.logarithmic(low, high, binsPerOctave)</tt>
+* divides each octave <tt>[2<sup>k</sup>low, 2<sup>k+1</sup>low)</tt>
+* into bins of equal width, like an HDR histogram. 
+* The relative error of a percentile is at most 
+* <tt>1/binsPerOctave</tt> over the whole range, which suits 
+* waiting times that span several orders of magnitude.
+* </ul>
+* Observations outside the range are counted in an underflow or an 
+* overflow bin. The exact minimum, maximum and mean are kept by a 
+* <tt>Tally</tt>.
+*
+* @see javaSimulation.statistics.Tally
+*/
+
+public class Histogram {
+    private final double low, high;
+    private final int bins, binsPerOctave;
+    private final double width;
+    private final long[] count;
+    private long underflow, overflow;
+    private final Tally tally = new Tally();
+
+    /**
+    * Creates a histogram with bins of equal width.
+    *
+    * @param <tt>low</tt> The lower limit of the first bin.
+    * @param <tt>high</tt> The upper limit of the last bin.
+    * @param <tt>bins</tt> The number of bins.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>high</tt> is not greater than <tt>low</tt>, 
+    * or <tt>bins</tt> is not positive.
+    */
+    public Histogram(double low, double high, int bins) {
+        this(low, high, bins, 0);
+    }
+
+    private Histogram(double low, double high, int bins, int binsPerOctave) {
+        if (!(high > low) || bins <= 0)
+            error("Histogram: Illegal range or number of bins");
+        this.low = low;
+        this.high = high;
+        this.bins = bins;
+        this.binsPerOctave = binsPerOctave;
+        width = (high - low) / bins;
+        count = new long[bins];
+    }
+
+    /**
+    * Creates a histogram with logarithmic bins.
+    *
+    * @param <tt>low</tt> The lower limit of the first bin.
+    * @param <tt>high</tt> The smallest upper limit of the bins.
+    * @param <tt>binsPerOctave</tt> The number of bins in each octave.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>low</tt> is not positive, <tt>high</tt> is not greater than 
+    * <tt>low</tt>, or <tt>binsPerOctave</tt> is not positive.
+    */
+    public static Histogram logarithmic(double low, double high, 
+                                        int binsPerOctave) {
+        if (!(low > 0) || !(high > low) || binsPerOctave <= 0)
+            error("logarithmic: Illegal range or number of bins");
+        int octaves = (int) Math.ceil(Math.log(high / low) / Math.log(2));
+        return new Histogram(low, low * Math.scalb(1.0, octaves), 
+                             octaves * binsPerOctave, binsPerOctave);
+    }
+
+    /**
+    * Adds an observation.
+    *
+    * @param <tt>x</tt> The observation.
+    */
+    public void add(double x) {
+        tally.add(x);
+        if (x < low)
+            underflow++;
+        else if (x >= high)
+            overflow++;
+        else
+            count[index(x)]++;
+    }
+
+    /**
+    * Adds the observations of another histogram with the same bins 
+    * to this histogram.
+    *
+    * @param <tt>h</tt> The other histogram.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if the bins of the histograms differ.
+    */
+    public void merge(Histogram h) {
+        if (h.low != low || h.high != high || h.bins != bins || 
+            h.binsPerOctave != binsPerOctave)
+            error("merge: The histograms have different bins");
+        for (int i = 0; i < bins; i++)
+            count[i] += h.count[i];
+        underflow += h.underflow;
+        overflow += h.overflow;
+        tally.merge(h.tally);
+    }
+
+    /**
+    * Removes all observations.
+    */
+    public void reset() {
+        java.util.Arrays.fill(count, 0);
+        underflow = overflow = 0;
+        tally.reset();
+    }
+
+    /**
+    * Returns the number of observations.
+    */
+    public long count() {
+        return tally.count();
+    }
+
+    /**
+    * Returns the tally of the observations.
+    */
+    public Tally tally() {
+        return tally;
+    }
+
+    /**
+    * Returns the number of bins (excluding underflow and overflow).
+    */
+    public int bins() {
+        return bins;
+    }
+
+    /**
+    * Returns the number of observations in bin <tt>i</tt>.
+    */
+    public long count(int i) {
+        return count[i];
+    }
+
+    /**
+    * Returns the lower limit of bin <tt>i</tt>.
+    * The upper limit is the lower limit of bin <tt>i + 1</tt>.
+    */
+    public double lowerLimit(int i) {
+        if (binsPerOctave == 0)
+            return i == bins ? high : low + i * width;
+        int octave = i / binsPerOctave, sub = i % binsPerOctave;
+        return low * Math.scalb(1.0 + (double) sub / binsPerOctave, octave);
+    }
+
+    /**
+    * Returns the number of observations below the range.
+    */
+    public long underflow() {
+        return underflow;
+    }
+
+    /**
+    * Returns the number of observations above the range.
+    */
+    public long overflow() {
+        return overflow;
+    }
+
+    /**
+    * Returns an estimate of the <tt>p</tt>-quantile of the observations,
+    * interpolated linearly within its bin. 
+    * Quantiles that fall in the underflow or overflow bin are 
+    * estimated by the minimum or maximum.
+    *
+    * @param <tt>p</tt> The probability, between 0 and 1.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>p</tt> is outside [0, 1], or there are no observations.
+    */
+    public double quantile(double p) {
+        if (!(p >= 0 && p <= 1))
+            error("quantile: p must be between 0 and 1");
+        long n = tally.count();
+        if (n == 0)
+            error("quantile: No observations");
+        double rank = p * n;
+        if (rank <= underflow)
+            return tally.min();
+        double seen = underflow;
+        for (int i = 0; i < bins; i++) {
+            if (count[i] > 0 && seen + count[i] >= rank) {
+                double lo = Math.max(lowerLimit(i), tally.min());
+                double hi = Math.min(lowerLimit(i + 1), tally.max());
+                return lo + (hi - lo) * (rank - seen) / count[i];
+            }
+            seen += count[i];
+        }
+        return tally.max();
+    }
+
+    /**
+    * Returns an estimate of the <tt>p</tt>-th percentile 
+    * (<tt>quantile(p / 100)</tt>).
+    */
+    public double percentile(double p) {
+        return quantile(p / 100);
+    }
+
+    /**
+    * Returns the index of the bin of an observation in the range.
+    */
+    private int index(double x) {
+        int i;
+        if (binsPerOctave == 0)
+            i = (int) ((x - low) / width);
+        else {
+            double r = x / low;
+            int octave = Math.getExponent(r);
+            double frac = Math.scalb(r, -octave) - 1;
+            i = octave * binsPerOctave + (int) (frac * binsPerOctave);
+        }
+        if (i >= bins)
+            i = bins - 1;
+        else if (i > 0 && x < lowerLimit(i))
+            i--;
+        return i;
+    }
+
+    public String toString() {
+        if (count() == 0)
+            return "n = 0";
+        return String.format("n = %d, mean = %.4f, p50 = %.4f, p95 = %.4f, p99 = %.4f, max = %.4f",
+                             count(), tally.mean(), percentile(50), 
+                             percentile(95), percentile(99), tally.max());
+    }
+
+    /**
+    * Throws a run-time exception with a specified error
+    * message.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * always.
+    */
+    private static void error(String msg) {
+        throw new RuntimeException(msg);
+    }
+}
@@ -0,0 +1,221 @@
+/*
+  File: Tally.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation.statistics;
+
+/**
+* This class may be used for collecting statistics on a series of 
+* observations, such as the waiting times of customers.
+* <p>
+* The mean and variance are updated by Welford's method, which is 
+* numerically stable and keeps only a few numbers, no matter how many 
+* observations are added. 
+* Tallies collected separately, for example by parallel replications,
+* may be combined by <tt>merge</tt>.
+*
+* @see javaSimulation.statistics.Accumulate
+* @see javaSimulation.statistics.Histogram
+*/
+
+public class Tally {
+    private long n;
+    private double mean, m2, sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+    * Adds an observation.
+    *
+    * @param <tt>x</tt> The observation.
+    */
+    public void add(double x) {
+        n++;
+        double d = x - mean;
+        mean += d / n;
+        m2 += d * (x - mean);
+        sum += x;
+        if (x < min)
+            min = x;
+        if (x > max)
+            max = x;
+    }
+
+    /**
+    * Adds the observations of another tally to this tally.
+    *
+    * @param <tt>t</tt> The other tally.
+    */
+    public void merge(Tally t) {
+        if (t.n == 0)
+            return;
+        if (n == 0) {
+            n = t.n; mean = t.mean; m2 = t.m2; sum = t.sum;
+            min = t.min; max = t.max;
+            return;
+        }
+        long m = n + t.n;
+        double d = t.mean - mean;
+        mean += d * t.n / m;
+        m2 += t.m2 + d * d * ((double) n * t.n / m);
+        sum += t.sum;
+        n = m;
+        if (t.min < min)
+            min = t.min;
+        if (t.max > max)
+            max = t.max;
+    }
+
+    /**
+    * Removes all observations.
+    */
+    public void reset() {
+        n = 0;
+        mean = m2 = sum = 0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+    * Returns the number of observations.
+    */
+    public long count() {
+        return n;
+    }
+
+    /**
+    * Returns the sum of the observations.
+    */
+    public double sum() {
+        return sum;
+    }
+
+    /**
+    * Returns the mean of the observations, or 0 if there are none.
+    */
+    public double mean() {
+        return mean;
+    }
+
+    /**
+    * Returns the sample variance of the observations, 
+    * or 0 if there are fewer than two.
+    */
+    public double variance() {
+        return n > 1 ? m2 / (n - 1) : 0;
+    }
+
+    /**
+    * Returns the sample standard deviation of the observations, 
+    * or 0 if there are fewer than two.
+    */
+    public double stdDev() {
+        return Math.sqrt(variance());
+    }
+
+    /**
+    * Returns the half-width of the confidence interval for the mean
+    * at the specified level, based on Student's t distribution
+    * with <tt>count() - 1</tt> degrees of freedom.
+    * The observations are assumed to be independent and
+    * approximately normal, as are the results of independent
+    * replications or the means of long batches.
+    *
+    * @param <tt>level</tt> The confidence level, e.g. 0.95.
+    *
+    * @return The half-width, or infinity if there are fewer than two
+    * observations.
+    *
+    * @exception <tt>RuntimeException</tt>
+    * if <tt>level</tt> is not between 0 and 1.
+    */
+    public double halfWidth(double level) {
+        if (!(level > 0 && level < 1))
+            throw new RuntimeException("halfWidth: Illegal level");
+        if (n < 2)
+            return Double.POSITIVE_INFINITY;
+        return studentQuantile(1 - level, n - 1) * Math.sqrt(variance() / n);
+    }
+
+    /**
+    * Returns the smallest observation.
+    */
+    public double min() {
+        return min;
+    }
+
+    /**
+    * Returns the largest observation.
+    */
+    public double max() {
+        return max;
+    }
+
+    public String toString() {
+        return String.format("n = %d, mean = %.4f, sd = %.4f, min = %.4f, max = %.4f",
+                             n, mean(), stdDev(), min, max);
+    }
+
+    /**
+    * Returns the quantile <tt>t</tt> of Student's t distribution with
+    * <tt>df</tt> degrees of freedom for which P(|T| &gt; t) = <tt>p</tt>,
+    * by Hill's algorithm (CACM Algorithm 396).
+    * The result is exact for 1 and 2 degrees of freedom, and accurate
+    * to about six digits otherwise.
+    */
+    static double studentQuantile(double p, double df) {
+        if (df == 1) {
+            p *= Math.PI / 2;
+            return Math.cos(p) / Math.sin(p);
+        }
+        if (df == 2)
+            return Math.sqrt(2 / (p * (2 - p)) - 2);
+        double a = 1 / (df - 0.5);
+        double b = 48 / (a * a);
+        double c = ((20700 * a / b - 98) * a - 16) * a + 96.36;
+        double d = ((94.5 / (b + c) - 3) / b + 1) * Math.sqrt(a * Math.PI / 2) * df;
+        double x = d * p;
+        double y = Math.pow(x, 2 / df);
+        if (y > 0.05 + a) {
+            x = normalQuantile(p / 2);
+            y = x * x;
+            if (df < 5)
+                c += 0.3 * (df - 4.5) * (x + 0.6);
+            c = (((0.05 * d * x - 5) * x - 7) * x - 2) * x + b + c;
+            y = (((((0.4 * y + 6.3) * y + 36) * y + 94.5) / c - y - 3) / b + 1) * x;
+            y = a * y * y;
+            y = y > 0.002 ? Math.exp(y) - 1 : 0.5 * y * y + y;
+        } else
+            y = ((1 / (((df + 6) / (df * y) - 0.089 * d - 0.822) * (df + 2) * 3) +
+                 0.5 / (df + 4)) * y - 1) * (df + 1) / (df + 2) + 1 / y;
+        return Math.sqrt(df * y);
+    }
+
+    /**
+    * Returns the quantile of the standard normal distribution at
+    * <tt>p</tt>, by Acklam's rational approximation (relative
+    * error below 1.2e-9).
+    */
+    static double normalQuantile(double p) {
+        if (p > 0.5)
+            return -normalQuantile(1 - p);
+        if (p < 0.02425) {
+            double q = Math.sqrt(-2 * Math.log(p));
+            return (((((-7.784894002430293e-03 * q - 3.223964580411365e-01) * q
+                       - 2.400758277161838e+00) * q - 2.549732539343734e+00) * q
+                       + 4.374664141464968e+00) * q + 2.938163982698783e+00) /
+                   ((((7.784695709041462e-03 * q + 3.224671290700398e-01) * q
+                      + 2.445134137142996e+00) * q + 3.754408661907416e+00) * q + 1);
+        }
+        double q = p - 0.5, r = q * q;
+        return (((((-3.969683028665376e+01 * r + 2.209460984245205e+02) * r
+                   - 2.759285104469687e+02) * r + 1.383577518672690e+02) * r
+                   - 3.066479806614716e+01) * r + 2.506628277459239e+00) * q /
+               (((((-5.447609879822406e+01 * r + 1.615858368580409e+02) * r
+                   - 1.556989798598866e+02) * r + 6.680131188771972e+01) * r
+                   - 1.328068155288572e+01) * r + 1);
+    }
+}
@@ -0,0 +1,175 @@
+/*
+  File: DistributionCheck.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+import java.util.Arrays;
+import java.util.function.DoubleSupplier;
+import java.util.stream.Stream;
+import javaSimulation.*;
+import javaSimulation.statistics.Tally;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+/**
+* Statistical checks that the fast samplers of <tt>Random</tt> draw 
+* from the same distributions as the methods they replace.
+* <p>
+* For each pair of methods, <tt>n</tt> values are drawn from each,
+* with different seeds, and compared by the two-sample
+* Kolmogorov-Smirnov test at the 0.1% level. The difference of the 
+* means must also be within five standard errors.
+* <p>
+* The number of values, by default 1000000, may be set by the system 
+* property <tt>distributionCheck.n</tt>.
+*/
+public class DistributionCheck {
+    static final int n = Integer.getInteger("distributionCheck.n", 1_000_000);
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("checks")
+    void sameDistribution(String name, DoubleSupplier reference, DoubleSupplier sampler) {
+        double[] a = draw(reference), b = draw(sampler);
+        Tally ta = tally(a), tb = tally(b);
+        double d = ks(a, b);
+        double critical = 1.949 * Math.sqrt(2.0 / n);
+        double se = Math.sqrt((ta.variance() + tb.variance()) / n);
+        String result = String.format(java.util.Locale.ROOT, 
+                                      "D = %.5f (critical %.5f), mean %.4f (reference %.4f), " +
+                                      "sd %.4f (reference %.4f)",
+                                      d, critical, tb.mean(), ta.mean(), tb.stdDev(), ta.stdDev());
+        assertTrue(d < critical, result);
+        assertTrue(Math.abs(ta.mean() - tb.mean()) <= 5 * se, result);
+    }
+
+    /**
+    * Returns the checks: a name, a reference sampler and the sampler 
+    * that is compared with it.
+    */
+    static Stream<Arguments> checks() {
+        Random r = new Random(11), z = new Random(13);
+        Random x = Random.xoshiro256(17);
+        Stream.Builder<Arguments> checks = Stream.builder();
+        check(checks, "normal/ziggurat", () -> r.normal(0, 1), () -> z.zigguratNormal(0, 1));
+        check(checks, "normal/ziggurat/xoshiro256", () -> r.normal(3, 2), () -> x.zigguratNormal(3, 2));
+        check(checks, "normal/xoshiro256", () -> r.normal(0, 1), () -> x.normal(0, 1));
+        check(checks, "negexp/ziggurat", () -> r.negexp(2), () -> z.zigguratNegexp(2));
+        check(checks, "negexp/ziggurat/xoshiro256", () -> r.negexp(0.5), () -> x.zigguratNegexp(0.5));
+        check(checks, "negexp/xoshiro256", () -> r.negexp(1), () -> x.negexp(1));
+        check(checks, "erlang/gamma/2", () -> r.erlang(1, 2), () -> z.fastErlang(1, 2));
+        check(checks, "erlang/gamma/50", () -> r.erlang(0.1, 50), () -> x.fastErlang(0.1, 50));
+        check(checks, "erlang/gamma/1", () -> r.erlang(2, 1), () -> z.fastErlang(2, 1));
+        check(checks, "gamma/0.3", () -> gammaGS(r, 0.3), () -> z.gamma(0.3, 1));
+        check(checks, "poisson/inversion/3", () -> r.poisson(3), () -> z.fastPoisson(3));
+        check(checks, "poisson/ptrs/10", () -> r.poisson(10), () -> z.fastPoisson(10));
+        check(checks, "poisson/ptrs/500", () -> r.poisson(500), () -> x.fastPoisson(500));
+
+        double[] w = weights(40);
+        double[] cdf = cdf(w);
+        double[] values = new double[cdf.length + 1];
+        double[] p = new double[cdf.length + 1];
+        for (int i = 0; i < cdf.length; i++) {
+            values[i + 1] = 10 * (i + 1) + i % 3;
+            p[i + 1] = cdf[i];
+        }
+        p[cdf.length] = 1;
+        HistdTable ht = new HistdTable(w);
+        DiscreteTable dt = new DiscreteTable(cdf);
+        LinearTable lt = new LinearTable(p, values);
+        check(checks, "histd/alias", () -> r.histd(w), () -> z.histd(ht));
+        check(checks, "discrete/binary", () -> r.discrete(cdf), () -> z.discrete(dt));
+        check(checks, "linear/binary", () -> r.linear(p, values), () -> z.linear(lt));
+        return checks.build();
+    }
+
+    static void check(Stream.Builder<Arguments> checks, String name, 
+                      DoubleSupplier reference, DoubleSupplier sampler) {
+        checks.add(arguments(name, reference, sampler));
+    }
+
+    /**
+    * Returns a value drawn from the gamma distribution with 
+    * shape <tt>k</tt> &lt; 1 by the GS method of Ahrens and Dieter,
+    * as a reference for shapes that <tt>erlang</tt> does not cover.
+    */
+    static double gammaGS(Random r, double k) {
+        double b = (Math.E + k) / Math.E;
+        while (true) {
+            double p = b * r.nextDouble(), u = r.nextDouble();
+            if (p <= 1) {
+                double x = Math.pow(p, 1 / k);
+                if (u <= Math.exp(-x))
+                    return x;
+            } else {
+                double x = -Math.log((b - p) / k);
+                if (u <= Math.pow(x, k - 1))
+                    return x;
+            }
+        }
+    }
+
+    /**
+    * Returns <tt>k</tt> uneven weights, some of them zero.
+    */
+    static double[] weights(int k) {
+        double[] w = new double[k];
+        for (int i = 0; i < k; i++)
+            w[i] = i % 7 == 3 ? 0 : 1 + (i * 37 % 11);
+        return w;
+    }
+
+    /**
+    * Returns the cumulative distribution of the weights, without 
+    * its last element (1), as used by <tt>Random.discrete</tt>.
+    */
+    static double[] cdf(double[] w) {
+        double sum = 0;
+        for (double x : w)
+            sum += x;
+        double[] c = new double[w.length - 1];
+        double acc = 0;
+        for (int i = 0; i < c.length; i++)
+            c[i] = (acc += w[i]) / sum;
+        return c;
+    }
+
+    static double[] draw(DoubleSupplier s) {
+        double[] v = new double[n];
+        for (int i = 0; i < n; i++)
+            v[i] = s.getAsDouble();
+        return v;
+    }
+
+    static Tally tally(double[] v) {
+        Tally t = new Tally();
+        for (double x : v)
+            t.add(x);
+        return t;
+    }
+
+    /**
+    * Returns the two-sample Kolmogorov-Smirnov statistic: the largest
+    * difference between the empirical distribution functions. 
+    * The arrays are sorted.
+    */
+    static double ks(double[] a, double[] b) {
+        Arrays.sort(a);
+        Arrays.sort(b);
+        int i = 0, j = 0;
+        double d = 0;
+        while (i < a.length && j < b.length) {
+            double v = Math.min(a[i], b[j]);
+            while (i < a.length && a[i] == v)
+                i++;
+            while (j < b.length && b[j] == v)
+                j++;
+            d = Math.max(d, Math.abs((double) i / a.length - (double) j / b.length));
+        }
+        return d;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+  File: BulkQueueTest.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+* Tests that the customers of a <tt>BulkQueue</tt> are promised to 
+* the servers that are activated for them, and that a server whose 
+* timeout has elapsed takes the customers that are present, 
+* for coroutine and stepped servers.
+*/
+public class BulkQueueTest {
+    static final double INF = Double.POSITIVE_INFINITY;
+    static BulkQueue queue;
+    static StringBuilder log;
+
+    static class Server extends Process {
+        final String name;
+        final int min, max;
+        final double timeout;
+
+        Server(String name, int min, int max, double timeout) {
+            this.name = name;
+            this.min = min;
+            this.max = max;
+            this.timeout = timeout;
+        }
+
+        protected void actions() {
+            int n = queue.take(new Link[max], min, max, timeout);
+            log.append(name + " took " + n + " at " + time() + "; ");
+        }
+    }
+
+    static class SteppedServer extends StepProcess {
+        final String name;
+        final int min;
+        final double timeout;
+        final Link[] batch;
+
+        SteppedServer(String name, int min, int max, double timeout) {
+            this.name = name;
+            this.min = min;
+            this.timeout = timeout;
+            batch = new Link[max];
+        }
+
+        protected void actions() {
+            int n = queue.take(batch, min, batch.length, state++ == 0 ? timeout : 0);
+            if (n < 0)
+                return;
+            log.append(name + " took " + n + " at " + time() + "; ");
+        }
+    }
+
+    static class Put extends StepProcess {
+        final int n;
+
+        Put(int n) { this.n = n; }
+
+        protected void actions() {
+            for (int i = 0; i < n; i++)
+                queue.put(new Link());
+        }
+    }
+
+    /**
+    * A needs 2 customers and B 1; 3 customers arrive together at 
+    * time 1, so both go ahead. C needs 4 within a timeout of 2 and 
+    * is ahead of D, which needs 1; the only customer, arriving at 
+    * time 11, is kept for C, which takes it when its timeout elapses.
+    */
+    static class Main extends Process {
+        final boolean stepped;
+
+        Main(boolean stepped) { this.stepped = stepped; }
+
+        protected void actions() {
+            queue = new BulkQueue();
+            if (stepped) {
+                activate(new SteppedServer("A", 2, 5, INF));
+                activate(new SteppedServer("B", 1, 5, INF));
+                activate(new SteppedServer("C", 4, 5, 2), delay, 10);
+                activate(new SteppedServer("D", 1, 1, INF), delay, 10);
+            } else {
+                activate(new Server("A", 2, 5, INF));
+                activate(new Server("B", 1, 5, INF));
+                activate(new Server("C", 4, 5, 2), delay, 10);
+                activate(new Server("D", 1, 1, INF), delay, 10);
+            }
+            activate(new Put(3), delay, 1);
+            activate(new Put(1), delay, 11);
+            hold(100);
+            log.append("left " + queue.size());
+        }
+    }
+
+    static final String EXPECTED = 
+        "A took 2 at 1.0; B took 1 at 1.0; C took 1 at 12.0; left 0";
+
+    static String run(boolean stepped) {
+        log = new StringBuilder();
+        new Simulation().run(new Main(stepped));
+        return log.toString();
+    }
+
+    @Test
+    void coroutineServers() {
+        assertEquals(EXPECTED, run(false));
+    }
+
+    @Test
+    void steppedServers() {
+        assertEquals(EXPECTED, run(true));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+  File: CancelTest.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+* Tests that a process that cancels itself is suspended
+* until it is activated again.
+*/
+public class CancelTest {
+    static StringBuilder log;
+
+    static void log(String s) {
+        log.append(s).append('@').append(Process.time()).append(' ');
+    }
+
+    static class Coroutined extends Process {
+        protected void actions() {
+            log("before");
+            cancel(current());
+            log("after");
+        }
+    }
+
+    static class Stepped extends StepProcess {
+        protected void actions() {
+            switch (state++) {
+            case 0:
+                log("before");
+                cancel(current());
+                break;
+            case 1:
+                log("after");
+            }
+        }
+    }
+
+    static class Main extends Process {
+        final Process p;
+
+        Main(Process p) { this.p = p; }
+
+        protected void actions() {
+            activate(p);
+            hold(5);
+            log("main");
+            activate(p);
+            hold(5);
+        }
+    }
+
+    static class SteppedMain extends StepProcess {
+        final Process p;
+
+        SteppedMain(Process p) { this.p = p; }
+
+        protected void actions() {
+            switch (state++) {
+            case 0: activate(p); break;
+            case 1: hold(5); break;
+            case 2: log("main"); activate(p); break;
+            case 3: hold(5); break;
+            }
+        }
+    }
+
+    static String run(Process main) {
+        log = new StringBuilder();
+        new Simulation().run(main);
+        return log.toString();
+    }
+
+    static final String EXPECTED = "before@0.0 main@5.0 after@5.0 ";
+
+    @Test
+    void coroutineCancelsItself() {
+        assertEquals(EXPECTED, run(new Main(new Coroutined())));
+    }
+
+    @Test
+    void steppedProcessCancelsItself() {
+        assertEquals(EXPECTED, run(new SteppedMain(new Stepped())));
+    }
+}
@@ -0,0 +1,64 @@
+/*
+  File: CoroutineTest.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+* Tests of the coroutine backends.
+*/
+public class CoroutineTest {
+    /**
+    * Two coroutines that resume each other and record the order.
+    */
+    static class PingPong extends Coroutine {
+        final int n;
+        final StringBuilder log;
+        final char name;
+        Coroutine other;
+
+        PingPong(int n, char name, StringBuilder log) {
+            this.n = n;
+            this.name = name;
+            this.log = log;
+        }
+
+        protected void body() {
+            for (int i = 0; i < n; i++) {
+                log.append(name);
+                resume(other);
+            }
+        }
+    }
+
+    @AfterEach
+    void restoreBackend() {
+        Coroutine.setBackend(Coroutine.PLATFORM_THREADS);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {Coroutine.PLATFORM_THREADS, Coroutine.VIRTUAL_THREADS})
+    void resumeAlternates(int backend) {
+        Coroutine.setBackend(backend);
+        StringBuilder log = new StringBuilder();
+        PingPong a = new PingPong(1000, 'a', log), b = new PingPong(999, 'b', log);
+        a.other = b;
+        b.other = a;
+        Coroutine.resume(a);
+        assertEquals("ab".repeat(999) + "a", log.toString());
+    }
+
+    @Test
+    void virtualThreadsAreUsedFromJava21() {
+        assertEquals(Runtime.version().feature() >= 21, Coroutine.virtualThreadsSupported());
+    }
+}
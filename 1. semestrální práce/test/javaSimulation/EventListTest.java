@@ -0,0 +1,130 @@
+/*
+  File: EventListTest.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+/**
+* Differential test of the event lists. 
+* <p>
+* The same random sequence of operations (insertion, with and without 
+* <tt>prior</tt>, insertion before and after a scheduled process, 
+* removal and rescheduling) is applied to a <tt>LinkedEventList</tt>
+* and to the list under test, and after each operation the two lists 
+* must have the same first process and size; every sixteenth operation
+* the whole order is compared.
+* Event times are drawn from a few values, so that many processes 
+* have the same event time.
+*/
+public class EventListTest {
+    static final int PROCESSES = 200, OPERATIONS = 20000;
+
+    static class Item extends StepProcess {
+        final int id;
+
+        Item(int id) { this.id = id; }
+
+        protected void actions() {}
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("lists")
+    void sameOrderAsLinkedList(String name, Supplier<EventList> factory) {
+        for (long seed = 1; seed <= 5; seed++)
+            replay(seed, new LinkedEventList(), factory.get());
+    }
+
+    static Stream<Arguments> lists() {
+        return Stream.of(
+            arguments("heap", (Supplier<EventList>) HeapEventList::new),
+            arguments("calendar", (Supplier<EventList>) CalendarEventList::new),
+            arguments("ladder", (Supplier<EventList>) LadderEventList::new),
+            arguments("array heap", (Supplier<EventList>) ArrayHeapEventList::new),
+            arguments("lazy array heap", (Supplier<EventList>) () -> new ArrayHeapEventList(true)),
+            arguments("batched heap", (Supplier<EventList>) () -> new BatchedEventList(new HeapEventList())));
+    }
+
+    /**
+    * Applies the same operations to a reference list and a list 
+    * under test, each with its own processes, and compares them.
+    */
+    static void replay(long seed, EventList reference, EventList list) {
+        java.util.Random r = new java.util.Random(seed);
+        Item[] a = new Item[PROCESSES], b = new Item[PROCESSES];
+        for (int i = 0; i < PROCESSES; i++) {
+            a[i] = new Item(i);
+            b[i] = new Item(i);
+        }
+        List<Integer> scheduled = new ArrayList<>();
+        double now = 0;
+        for (int op = 0; op < OPERATIONS; op++) {
+            Process first = reference.first();
+            if (first != null)
+                now = first.EVTIME;
+            int k = r.nextInt(8);
+            if (scheduled.size() == PROCESSES || scheduled.size() > 0 && k >= 5) {
+                int i = k == 5 ? ((Item) first).id 
+                               : scheduled.get(r.nextInt(scheduled.size()));
+                if (k == 7) {
+                    double t = a[i].EVTIME + r.nextInt(3);
+                    reference.reschedule(a[i], t);
+                    list.reschedule(b[i], t);
+                } else {
+                    reference.remove(a[i]);
+                    list.remove(b[i]);
+                    scheduled.remove(Integer.valueOf(i));
+                }
+            } else {
+                int i;
+                do 
+                    i = r.nextInt(PROCESSES);
+                while (a[i].SCHEDULED);
+                if (k == 4 && !scheduled.isEmpty()) {
+                    int j = scheduled.get(r.nextInt(scheduled.size()));
+                    if (r.nextBoolean()) {
+                        reference.insertBefore(a[i], a[j]);
+                        list.insertBefore(b[i], b[j]);
+                    } else {
+                        reference.insertAfter(a[i], a[j]);
+                        list.insertAfter(b[i], b[j]);
+                    }
+                } else {
+                    a[i].EVTIME = b[i].EVTIME = now + r.nextInt(4);
+                    boolean prior = k == 3;
+                    reference.insert(a[i], prior);
+                    list.insert(b[i], prior);
+                }
+                scheduled.add(i);
+            }
+            String where = "seed " + seed + ", operation " + op;
+            if (op % 16 == 0)
+                assertEquals(order(reference), order(list), where);
+            else {
+                Process p = reference.first(), q = list.first();
+                assertEquals(p == null ? -1 : ((Item) p).id, 
+                             q == null ? -1 : ((Item) q).id, where);
+                assertEquals(reference.size(), list.size(), where);
+            }
+        }
+    }
+
+    static String order(EventList list) {
+        StringBuilder s = new StringBuilder();
+        for (Process p = list.first(); p != null; p = list.next(p))
+            s.append(((Item) p).id).append('@').append(p.EVTIME).append(' ');
+        return s.append("size ").append(list.size()).toString();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+  File: HeadTest.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+* Tests of the length statistics of <tt>Head</tt>.
+*/
+public class HeadTest {
+    /**
+    * One item from time 0 to 10 and two from 10 to 30, then the 
+    * simulation ends at time 40 with one item.
+    */
+    static class Model extends StepProcess {
+        final Head head = new Head(true);
+        final Link a = new Link(), b = new Link();
+        double meanAt40;
+
+        protected void actions() {
+            switch (state++) {
+            case 0: head.resetStatistics(); a.into(head); hold(10); break;
+            case 1: b.into(head); hold(20); break;
+            case 2: b.out(); hold(10); break;
+            default: meanAt40 = head.meanCardinal();
+            }
+        }
+    }
+
+    @Test
+    void meanIsReadAfterTheRun() {
+        Model m = new Model();
+        new Simulation(new HeapEventList()).run(m);
+        double expected = (1 * 10 + 2 * 20 + 1 * 10) / 40.0;
+        assertEquals(expected, m.meanAt40, 1e-12);
+        assertEquals(expected, m.head.meanCardinal(), 1e-12);
+        assertEquals((1 * 10 + 2 * 20 + 1 * 30) / 60.0, m.head.meanCardinal(60), 1e-12);
+        assertEquals(2, m.head.maxCardinal());
+    }
+
+    @Test
+    void meanIsReadAfterTheRunOfACoroutineProcess() {
+        Head head = new Head();
+        new Simulation().run(new Process() {
+            protected void actions() {
+                head.resetStatistics();
+                new Link().into(head);
+                hold(10);
+                head.first().out();
+                hold(30);
+            }
+        });
+        assertEquals(0.25, head.meanCardinal(), 1e-12);
+    }
+
+    @Test
+    void meanWithoutClockFails() {
+        Head h = new Head(true);
+        new Link().into(h);
+        assertThrows(RuntimeException.class, () -> h.meanCardinal());
+        assertEquals(1, h.meanCardinal(5), 0);
+        assertThrows(RuntimeException.class, () -> new Head().meanCardinal(5));
+    }
+
+    @Test
+    void insertionNextToAPlainLinkage() {
+        Linkage sentinel = new Linkage();
+        sentinel.SUC = sentinel.PRED = sentinel;
+        Link x = new Link(), y = new Link();
+        x.follow(sentinel);
+        y.precede(x);
+        assertSame(y, sentinel.suc());
+        x.out();
+        y.out();
+        assertSame(sentinel, sentinel.SUC);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+  File: StepProcessTest.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+* Tests that stepped processes are sequenced as coroutine processes:
+* a phase ends only when the process is suspended.
+*/
+public class StepProcessTest {
+    static StringBuilder log;
+
+    static void log(String s) {
+        log.append(s).append('@').append(Process.time()).append(' ');
+    }
+
+    static class Target extends StepProcess {
+        protected void actions() {
+            log("target");
+        }
+    }
+
+    /**
+    * Activates a process with a delay, which does not suspend it,
+    * and then holds.
+    */
+    static class Stepped extends StepProcess {
+        protected void actions() {
+            switch (state++) {
+            case 0:
+                activate(new Target(), delay, 5);
+                log("activated");
+                hold(10);
+                break;
+            case 1:
+                log("held");
+            }
+        }
+    }
+
+    static class Coroutined extends Process {
+        protected void actions() {
+            activate(new Target(), delay, 5);
+            log("activated");
+            hold(10);
+            log("held");
+        }
+    }
+
+    /**
+    * Activates a process directly, which suspends it, so the phase 
+    * must end; the next phase follows the activated process.
+    */
+    static class DirectStepped extends StepProcess {
+        protected void actions() {
+            switch (state++) {
+            case 0:
+                activate(new Target());
+                break;
+            case 1:
+                log("resumed");
+            }
+        }
+    }
+
+    static class DirectCoroutined extends Process {
+        protected void actions() {
+            activate(new Target());
+            log("resumed");
+        }
+    }
+
+    static String run(Process main) {
+        log = new StringBuilder();
+        new Simulation().run(main);
+        return log.toString();
+    }
+
+    @Test
+    void activationWithDelayDoesNotEndThePhase() {
+        String expected = "activated@0.0 target@5.0 held@10.0 ";
+        assertEquals(expected, run(new Stepped()));
+        assertEquals(expected, run(new Coroutined()));
+    }
+
+    @Test
+    void directActivationSuspends() {
+        String expected = "target@0.0 resumed@0.0 ";
+        assertEquals(expected, run(new DirectStepped()));
+        assertEquals(expected, run(new DirectCoroutined()));
+    }
+}
@@ -0,0 +1,112 @@
+/*
+  File: TimerWheelTest.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+* Tests that the timers of a <tt>TimerWheel</tt> fire at the first
+* tick at or after their due time, on all levels of the wheel and 
+* in the overflow list, and that cancelled timers do not fire.
+*/
+public class TimerWheelTest {
+    static final double TICK = 0.25;
+
+    /**
+    * Returns the time of the first tick at or after a specified time
+    * (the wheels are created at time 0).
+    */
+    static double due(double t) {
+        return Math.ceil(t / TICK) * TICK;
+    }
+
+    static void run(Runnable actions) {
+        new Simulation().run(new Process() {
+            protected void actions() {
+                actions.run();
+            }
+        });
+    }
+
+    @Test
+    void oneShotTimersFireAtTheirTick() {
+        List<String> errors = new ArrayList<>();
+        int[] fired = new int[1];
+        run(() -> {
+            TimerWheel wheel = new TimerWheel(TICK);
+            java.util.Random r = new java.util.Random(7);
+            List<TimerWheel.Timer> cancelled = new ArrayList<>();
+            double[] last = {0};
+            for (int round = 0; round < 50; round++) {
+                double T = Process.time();
+                for (int i = 0; i < 100; i++) {
+                    // Delays from a fraction of a tick to beyond the wheel
+                    double d = r.nextDouble() * Math.pow(8, r.nextInt(10));
+                    double expected = due(T + d);
+                    boolean cancel = r.nextInt(10) == 0;
+                    TimerWheel.Timer x = wheel.schedule(d, () -> {
+                        double t = Process.time();
+                        if (cancel || t != expected || t < last[0])
+                            errors.add("due " + expected + ", fired " + t);
+                        last[0] = t;
+                        fired[0]++;
+                    });
+                    assertEquals(expected, x.time());
+                    if (cancel)
+                        cancelled.add(x);
+                }
+                for (TimerWheel.Timer x : cancelled)
+                    x.cancel();
+                cancelled.clear();
+                Process.hold(r.nextDouble() * 1000);
+            }
+            assertTrue(wheel.size() > 0);
+            Process.hold(1e9);
+            assertEquals(0, wheel.size());
+        });
+        assertEquals(List.of(), errors);
+        assertTrue(fired[0] > 4000);
+    }
+
+    @Test
+    void periodicTimersFireEveryPeriod() {
+        List<Double> times = new ArrayList<>(), far = new ArrayList<>();
+        run(() -> {
+            TimerWheel wheel = new TimerWheel(TICK);
+            TimerWheel.Timer[] x = new TimerWheel.Timer[1];
+            x[0] = wheel.schedulePeriodic(3.1, 2, () -> {
+                times.add(Process.time());
+                if (times.size() == 4)
+                    x[0].cancel();
+            });
+            wheel.schedulePeriodic(1, 1e6, () -> far.add(Process.time()));
+            Process.hold(3e6);
+            assertFalse(x[0].active());
+            assertEquals(1, wheel.size());
+        });
+        assertEquals(List.of(3.25, 5.25, 7.25, 9.25), times);
+        assertEquals(List.of(1.0, 1e6 + 1, 2e6 + 1), far);
+    }
+
+    @Test
+    void timerScheduledByATimerFiresAtTheNextTick() {
+        List<Double> times = new ArrayList<>();
+        run(() -> {
+            TimerWheel wheel = new TimerWheel(TICK);
+            wheel.schedule(1, () -> {
+                times.add(Process.time());
+                wheel.schedule(0, () -> times.add(Process.time()));
+            });
+            Process.hold(10);
+        });
+        assertEquals(List.of(1.0, 1.25), times);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+  File: AccumulateTest.java
+
+  Released into the public domain.
+  This may be used for any purposes whatsoever without acknowledgment.
+*/
+
+package javaSimulation.statistics;
+
+import javaSimulation.*;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+* Tests of the time-weighted statistics of <tt>Accumulate</tt> and 
+* <tt>BatchMeans</tt>, read during and after the run.
+*/
+public class AccumulateTest {
+    /**
+    * The value is 2 from time 0 to 10 and 4 from 10 to 30; 
+    * the simulation ends at time 30.
+    */
+    static class Model extends StepProcess {
+        Accumulate busy;
+        BatchMeans batches;
+        double meanAt30;
+
+        protected void actions() {
+            switch (state++) {
+            case 0: 
+                busy = new Accumulate(2);
+                batches = new BatchMeans(5);
+                batches.update(2);
+                hold(10); 
+                break;
+            case 1: 
+                busy.update(4); 
+                batches.update(4); 
+                hold(20); 
+                break;
+            default: 
+                meanAt30 = busy.mean();
+            }
+        }
+    }
+
+    @Test
+    void meanIsReadAfterTheRun() {
+        Model m = new Model();
+        new Simulation().run(m);
+        double expected = (2 * 10 + 4 * 20) / 30.0;
+        assertEquals(expected, m.meanAt30, 1e-12);
+        assertEquals(expected, m.busy.mean(), 1e-12);
+        assertEquals((2 * 10 + 4 * 30) / 40.0, m.busy.mean(40), 1e-12);
+        assertThrows(RuntimeException.class, () -> m.busy.mean(5));
+    }
+
+    @Test
+    void batchMeansAreCompletedUpToTheEndOfTheRun() {
+        Model m = new Model();
+        new Simulation().run(m);
+        assertEquals(6, m.batches.size());
+        assertEquals(6, m.batches.size());    // Reading again adds nothing
+        assertEquals(10, m.batches.warmupTime(), 1e-12);
+        assertEquals(4, m.batches.mean(), 1e-12);
+    }
+
+    @Test
+    void meanWithoutClockFails() {
+        Accumulate a = new Accumulate(3);
+        assertThrows(RuntimeException.class, () -> a.mean());
+        assertEquals(3, a.mean(0), 0);
+    }
+}